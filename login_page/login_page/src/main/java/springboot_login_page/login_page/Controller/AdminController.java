@@ -2,12 +2,16 @@
 package springboot_login_page.login_page.Controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import springboot_login_page.login_page.DTO.AdminRegisterRequest;
+import springboot_login_page.login_page.DTO.BulkUserReport;
+import springboot_login_page.login_page.DTO.UserSummary;
 import springboot_login_page.login_page.Entity.User;
 import springboot_login_page.login_page.Service.AuthService;
+import springboot_login_page.login_page.Service.UserProvisioningService;
 
 import java.util.List;
 
@@ -18,6 +22,7 @@ import java.util.List;
 public class AdminController {
 
     private final AuthService authService;
+    private final UserProvisioningService userProvisioningService;
 
     @PostMapping("/register")
     public ResponseEntity<String> registerUser(@RequestBody AdminRegisterRequest request) {
@@ -25,6 +30,17 @@ public class AdminController {
         return ResponseEntity.ok("User registered successfully with role: " + request.getRole());
     }
 
+    // Provision many users at once; the report has one result per row, in request order
+    @PostMapping("/users/bulk")
+    public ResponseEntity<BulkUserReport> registerUsers(@RequestBody List<AdminRegisterRequest> requests) {
+        return ResponseEntity.ok(userProvisioningService.provision(requests));
+    }
+
+    @DeleteMapping("/users/bulk")
+    public ResponseEntity<BulkUserReport> deleteUsers(@RequestBody List<String> usernames) {
+        return ResponseEntity.ok(userProvisioningService.deprovision(usernames));
+    }
+
     @PutMapping("/users/{userId}/role")
     public ResponseEntity<String> updateUserRole(
             @PathVariable Long userId,
@@ -33,9 +49,12 @@ public class AdminController {
         return ResponseEntity.ok("User's role updated to: " + role);
     }
 
+    // One page of users ordered by id; size is capped at 500
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = authService.getAllUsers();
+    public ResponseEntity<Page<UserSummary>> getAllUsers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        Page<UserSummary> users = authService.getAllUsers(page, size);
         return ResponseEntity.ok(users);
     }
 
@@ -1,12 +1,26 @@
 package springboot_login_page.login_page.Controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import springboot_login_page.login_page.DTO.AuditLogPage;
+import springboot_login_page.login_page.DTO.AuditLogSummary;
+import springboot_login_page.login_page.DTO.AuditRollupBucket;
+import springboot_login_page.login_page.DTO.AuditSearchResult;
 import springboot_login_page.login_page.Entity.AuditLog;
+import springboot_login_page.login_page.Service.AuditExportService;
+import springboot_login_page.login_page.Service.AuditQueryService;
+import springboot_login_page.login_page.Service.AuditRollupService;
+import springboot_login_page.login_page.Service.AuditSearchIndex;
 import springboot_login_page.login_page.Service.AuditService;
+import springboot_login_page.login_page.Service.USSDCodeBulkService;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,36 +32,120 @@ import java.util.List;
 public class AuditController {
 
     private final AuditService auditService;
+    private final AuditQueryService auditQueryService;
+    private final AuditExportService auditExportService;
+    private final AuditRollupService auditRollupService;
+    private final AuditSearchIndex auditSearchIndex;
+
+    // Exports outlive the container's default async timeout; this one applies to /export only
+    @Value("${audit.export.timeout-ms:3600000}")
+    private long exportTimeoutMs;
+
+    // Full-text search over changes and details; every term must match. Returns audit ids, newest first
+    @GetMapping("/search")
+    public ResponseEntity<AuditSearchResult> searchAuditLogs(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(auditSearchIndex.search(q, Math.max(0, page), Math.max(1, Math.min(size, 500))));
+    }
+
+    // Pre-aggregated event counts by hour or day; defaults to the last 24 hours (hour) or 30 days (day)
+    @GetMapping("/stats")
+    public ResponseEntity<List<AuditRollupBucket>> getAuditStats(
+            @RequestParam(defaultValue = "hour") String granularity,
+            @RequestParam(defaultValue = "all") String dimension,
+            @RequestParam(required = false) String value,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        AuditRollupService.Granularity period = AuditRollupService.parseGranularity(granularity);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from
+                : period == AuditRollupService.Granularity.HOUR ? end.minusDays(1) : end.minusDays(30);
+        return ResponseEntity.ok(auditRollupService.getBuckets(period, AuditRollupService.parseDimension(dimension),
+                value, start, end));
+    }
+
+    // Compliance export: streams every matching row as NDJSON or CSV, optionally gzipped
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportAuditLogs(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String entityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) {
+        USSDCodeBulkService.Format exportFormat = USSDCodeBulkService.parseFormat(format);
+        AuditQueryService.Filter filter = new AuditQueryService.Filter(userId, action, entityType, entityId, from, to);
+        boolean csv = exportFormat == USSDCodeBulkService.Format.CSV;
+        String filename = "audit-logs." + (csv ? "csv" : "ndjson") + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? new MediaType("application", "gzip")
+                : csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson");
+        response.setContentType(contentType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        return new WebAsyncTask<>(exportTimeoutMs, () -> {
+            auditExportService.export(response.getOutputStream(), exportFormat, filter, gzip);
+            return null;
+        });
+    }
+
+    // Any combination of filters, newest first; pass nextCursor back to get the following page.
+    // federated=true reads all three backends and merges them instead of falling back in order.
+    @GetMapping("/query")
+    public ResponseEntity<AuditLogPage> queryAuditLogs(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String entityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + AuditQueryService.DEFAULT_LIMIT) int limit,
+            @RequestParam(defaultValue = "false") boolean federated) {
+        AuditQueryService.Filter filter = new AuditQueryService.Filter(userId, action, entityType, entityId, from, to);
+        return ResponseEntity.ok(federated
+                ? auditQueryService.queryFederated(filter, cursor, limit)
+                : auditQueryService.query(filter, cursor, limit));
+    }
 
     @GetMapping("/logs")
-    public ResponseEntity<List<AuditLog>> getAllAuditLogs() {
+    public ResponseEntity<List<AuditLogSummary>> getAllAuditLogs() {
         return ResponseEntity.ok(auditService.getAllAuditLogs());
     }
 
+    // The list endpoints return summaries; changes and details are fetched here one record at a time
+    @GetMapping("/logs/{id}")
+    public ResponseEntity<AuditLog> getAuditLog(@PathVariable Long id) {
+        return ResponseEntity.ok(auditService.getAuditLog(id));
+    }
+
     @GetMapping("/entity/{entityType}")
-    public ResponseEntity<List<AuditLog>> getAuditLogsByEntityType(@PathVariable String entityType) {
+    public ResponseEntity<List<AuditLogSummary>> getAuditLogsByEntityType(@PathVariable String entityType) {
         return ResponseEntity.ok(auditService.getAuditLogsByEntityType(entityType));
     }
 
     @GetMapping("/action/{action}")
-    public ResponseEntity<List<AuditLog>> getAuditLogsByAction(@PathVariable String action) {
+    public ResponseEntity<List<AuditLogSummary>> getAuditLogsByAction(@PathVariable String action) {
         return ResponseEntity.ok(auditService.getAuditLogsByAction(action));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<AuditLog>> getAuditLogsByUser(@PathVariable String userId) {
+    public ResponseEntity<List<AuditLogSummary>> getAuditLogsByUser(@PathVariable String userId) {
         return ResponseEntity.ok(auditService.getAuditLogsByUser(userId));
     }
 
     @GetMapping("/entity/{entityType}/{entityId}")
-    public ResponseEntity<List<AuditLog>> getAuditLogsForEntity(
+    public ResponseEntity<List<AuditLogSummary>> getAuditLogsForEntity(
             @PathVariable String entityType,
             @PathVariable String entityId) {
         return ResponseEntity.ok(auditService.getAuditLogsForEntity(entityType, entityId));
     }
 
     @GetMapping("/date-range")
-    public ResponseEntity<List<AuditLog>> getAuditLogsByDateRange(
+    public ResponseEntity<List<AuditLogSummary>> getAuditLogsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
         return ResponseEntity.ok(auditService.getAuditLogsByDateRange(start, end));
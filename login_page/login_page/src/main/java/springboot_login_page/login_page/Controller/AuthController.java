@@ -1,12 +1,17 @@
 
 package springboot_login_page.login_page.Controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import springboot_login_page.login_page.DTO.AuthRequest;
 import springboot_login_page.login_page.DTO.AuthResponse;
+import springboot_login_page.login_page.DTO.RefreshRequest;
 import springboot_login_page.login_page.Service.AuthService;
+import springboot_login_page.login_page.security.LoginRateLimiter;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -14,10 +19,30 @@ import springboot_login_page.login_page.Service.AuthService;
 public class AuthController {
 
     private final AuthService service;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
-        String token = service.login(request.getUsername(), request.getPassword());
-        return ResponseEntity.ok(new AuthResponse(token));
+    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request, HttpServletRequest httpRequest) {
+        // Throttle before any password hashing or database lookup
+        if (!loginRateLimiter.tryAcquire(request.getUsername(), httpRequest)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginRateLimiter.retryAfterSeconds()))
+                    .build();
+        }
+
+        return ResponseEntity.ok(service.login(request.getUsername(), request.getPassword()));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody RefreshRequest request) {
+        return ResponseEntity.ok(service.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(@RequestBody RefreshRequest request,
+                                         @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        service.logout(request.getRefreshToken(), accessToken);
+        return ResponseEntity.ok("Logged out successfully");
     }
 }
\ No newline at end of file
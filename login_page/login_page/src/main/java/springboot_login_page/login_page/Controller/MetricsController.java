@@ -0,0 +1,39 @@
+package springboot_login_page.login_page.Controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import springboot_login_page.login_page.Service.AuthService;
+import springboot_login_page.login_page.Service.PasswordHashingService;
+import springboot_login_page.login_page.Service.USSDSessionService;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class MetricsController {
+
+    private final PasswordHashingService passwordHashingService;
+    private final AuthService authService;
+    private final USSDSessionService ussdSessionService;
+
+    @GetMapping("/password-hashing")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingMetrics() {
+        return ResponseEntity.ok(passwordHashingService.getMetrics());
+    }
+
+    @GetMapping("/login")
+    public ResponseEntity<Map<String, Object>> getLoginMetrics() {
+        return ResponseEntity.ok(authService.getLoginMetrics());
+    }
+
+    @GetMapping("/ussd-sessions")
+    public ResponseEntity<Map<String, Object>> getUssdSessionMetrics() {
+        return ResponseEntity.ok(ussdSessionService.getMetrics());
+    }
+}
@@ -0,0 +1,28 @@
+package springboot_login_page.login_page.Controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import springboot_login_page.login_page.Service.JwtKeyService;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/public")
+@RequiredArgsConstructor
+public class PublicKeyController {
+
+    private final JwtKeyService jwtKeyService;
+
+    // Downstream services verify tokens offline against this document
+    @GetMapping("/jwks")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(jwtKeyService.getJwks());
+    }
+}
@@ -2,12 +2,25 @@
 package springboot_login_page.login_page.Controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import springboot_login_page.login_page.DTO.USSDCodeSearchResult;
+import springboot_login_page.login_page.DTO.USSDImportReport;
+import springboot_login_page.login_page.DTO.USSDCodeView;
+import springboot_login_page.login_page.DTO.USSDResolveResponse;
 import springboot_login_page.login_page.Entity.USSDCode;
+import springboot_login_page.login_page.Service.USSDCodeBulkService;
+import springboot_login_page.login_page.Service.USSDCodeResolver;
+import springboot_login_page.login_page.Service.USSDCodeSearchIndex;
 import springboot_login_page.login_page.Service.USSDCodeService;
+import springboot_login_page.login_page.Service.USSDCodeUsageService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -16,6 +29,10 @@ import java.util.List;
 public class USSDCodeController {
 
     private final USSDCodeService ussdCodeService;
+    private final USSDCodeResolver ussdCodeResolver;
+    private final USSDCodeUsageService ussdCodeUsageService;
+    private final USSDCodeSearchIndex ussdCodeSearchIndex;
+    private final USSDCodeBulkService ussdCodeBulkService;
 
     // Get all USSD codes - accessible by both USER and ADMIN
     @GetMapping("/codes")
@@ -24,6 +41,16 @@ public class USSDCodeController {
         return ResponseEntity.ok(ussdCodeService.getAllUSSDCodes());
     }
 
+    // Ranked search over code and description, one page at a time - accessible by both USER and ADMIN
+    @GetMapping("/codes/search")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<USSDCodeSearchResult> searchUSSDCodes(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(ussdCodeSearchIndex.search(q, Math.max(0, page), Math.max(1, Math.min(size, 100))));
+    }
+
     // Get USSD code by ID - accessible by both USER and ADMIN
     @GetMapping("/codes/{id}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
@@ -38,6 +65,29 @@ public class USSDCodeController {
         return ResponseEntity.ok(ussdCodeService.createUSSDCode(code));
     }
 
+    // Bulk import from a CSV (code,description,active) or NDJSON body - ADMIN only
+    @PostMapping("/codes/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<USSDImportReport> importUSSDCodes(
+            @RequestParam(defaultValue = "csv") String format,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(ussdCodeBulkService.importCodes(body, USSDCodeBulkService.parseFormat(format)));
+    }
+
+    // Streams the whole catalog as CSV or NDJSON - ADMIN only
+    @GetMapping("/codes/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUSSDCodes(@RequestParam(defaultValue = "csv") String format) {
+        USSDCodeBulkService.Format exportFormat = USSDCodeBulkService.parseFormat(format);
+        List<USSDCode> codes = ussdCodeService.getAllUSSDCodes();
+        boolean csv = exportFormat == USSDCodeBulkService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"ussd-codes." + (csv ? "csv" : "ndjson") + "\"")
+                .body(out -> ussdCodeBulkService.exportCodes(out, exportFormat, codes));
+    }
+
     // Update USSD code - accessible by both USER and ADMIN
     @PutMapping("/codes/{id}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
@@ -48,6 +98,20 @@ public class USSDCodeController {
         return ResponseEntity.ok("USSD code updated successfully");
     }
 
+    // Resolve a dial string to the longest matching active code - accessible by both USER and ADMIN
+    @GetMapping("/resolve")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<USSDResolveResponse> resolve(@RequestParam String dial) {
+        USSDCodeResolver.Resolution resolution = ussdCodeResolver.resolveWithParams(dial);
+        if (resolution == null) {
+            return ResponseEntity.notFound().build();
+        }
+        USSDCodeView code = resolution.code();
+        ussdCodeUsageService.recordHit(code.id());
+        return ResponseEntity.ok(new USSDResolveResponse(
+                dial, code.id(), code.code(), code.description(), resolution.params()));
+    }
+
     // Delete USSD code - accessible by both USER and ADMIN
     @DeleteMapping("/codes/{id}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
@@ -0,0 +1,54 @@
+package springboot_login_page.login_page.Controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import springboot_login_page.login_page.DTO.USSDCodeUsage;
+import springboot_login_page.login_page.DTO.USSDCodeUsageBucket;
+import springboot_login_page.login_page.Service.USSDCodeUsageService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/ussd/stats")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class USSDCodeStatsController {
+
+    private final USSDCodeUsageService usageService;
+
+    // Most dialed codes in a time range; defaults to the last 24 hours
+    @GetMapping("/top")
+    public ResponseEntity<List<USSDCodeUsage>> getTopCodes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "10") int limit) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        return ResponseEntity.ok(usageService.getTopCodes(start, end, Math.max(1, Math.min(limit, 1000))));
+    }
+
+    // Hourly hit counts, for one code or overall
+    @GetMapping("/buckets")
+    public ResponseEntity<List<USSDCodeUsageBucket>> getHourlyBuckets(
+            @RequestParam(required = false) Long codeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        return ResponseEntity.ok(usageService.getHourlyBuckets(codeId, start, end));
+    }
+
+    // Codes not dialed since the given time (default 30 days ago)
+    @GetMapping("/unused")
+    public ResponseEntity<List<USSDCodeUsage>> getUnusedCodes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        return ResponseEntity.ok(usageService.getUnusedCodes(since != null ? since : LocalDateTime.now().minusDays(30)));
+    }
+}
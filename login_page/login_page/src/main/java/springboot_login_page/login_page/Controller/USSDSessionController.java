@@ -0,0 +1,48 @@
+package springboot_login_page.login_page.Controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import springboot_login_page.login_page.DTO.USSDSessionRequest;
+import springboot_login_page.login_page.DTO.USSDSessionResponse;
+import springboot_login_page.login_page.Service.USSDSessionService;
+
+@RestController
+@RequestMapping("/api/ussd/sessions")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+public class USSDSessionController {
+
+    private final USSDSessionService sessionService;
+
+    // Start a session from the subscriber's dial string
+    @PostMapping
+    public ResponseEntity<USSDSessionResponse> start(@RequestBody USSDSessionRequest request) {
+        return ResponseEntity.ok(sessionService.start(request, caller()));
+    }
+
+    // Record the subscriber's next reply and extend the session
+    @PostMapping("/{sessionId}/advance")
+    public ResponseEntity<USSDSessionResponse> advance(
+            @PathVariable String sessionId,
+            @RequestBody USSDSessionRequest request) {
+        return ResponseEntity.ok(sessionService.advance(sessionId, request.getMsisdn(), request.getInput(), caller()));
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<USSDSessionResponse> get(@PathVariable String sessionId) {
+        return ResponseEntity.ok(sessionService.get(sessionId, caller()));
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<USSDSessionResponse> end(@PathVariable String sessionId) {
+        return ResponseEntity.ok(sessionService.end(sessionId, caller()));
+    }
+
+    // Sessions belong to the account that started them
+    private static String caller() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+}
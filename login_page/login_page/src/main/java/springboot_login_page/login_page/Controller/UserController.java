@@ -6,8 +6,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import springboot_login_page.login_page.DTO.UserSummary;
 import springboot_login_page.login_page.Entity.User;
 import springboot_login_page.login_page.Repository.mysql.MySQLUserRepository;
+import springboot_login_page.login_page.security.MyUserDetailsService;
 
 @RestController
 @RequestMapping("/api/user")
@@ -15,13 +17,14 @@ import springboot_login_page.login_page.Repository.mysql.MySQLUserRepository;
 public class UserController {
 
     private final MySQLUserRepository mySQLUserRepository;
+    private final MyUserDetailsService userDetailsService;
 
     @GetMapping("/profile")
-    public ResponseEntity<User> getProfile() {
+    public ResponseEntity<UserSummary> getProfile() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String username = auth.getName();
 
-        User user = mySQLUserRepository.findByUsername(username)
+        UserSummary user = mySQLUserRepository.findSummaryByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         return ResponseEntity.ok(user);
@@ -55,6 +58,7 @@ public class UserController {
         // Role cannot be updated by user (admin only)
 
         mySQLUserRepository.save(user);
+        userDetailsService.evict(username);
         return ResponseEntity.ok(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package springboot_login_page.login_page.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Data
+public class AuditLogPage {
+    private List<AuditLogSummary> items;
+    private int limit;
+    private String nextCursor;  // null on the last page
+    private List<String> unavailableBackends;  // federated queries only: backends that did not answer
+}
@@ -0,0 +1,24 @@
+package springboot_login_page.login_page.DTO;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// An audit row without its changes/details LOBs, for list views
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AuditLogSummary {
+    private Long id;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime timestamp;
+    private String userId;
+    private String username;
+    private String action;
+    private String entityType;
+    private String entityId;
+    private String ipAddress;
+}
@@ -0,0 +1,14 @@
+package springboot_login_page.login_page.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Data
+public class AuditRollupBucket {
+    private LocalDateTime bucketStart; // start of the hour or day
+    private String value;              // the action, entity type or user; "*" for all events
+    private long events;
+}
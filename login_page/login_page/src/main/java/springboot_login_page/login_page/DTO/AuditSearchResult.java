@@ -0,0 +1,16 @@
+package springboot_login_page.login_page.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Data
+public class AuditSearchResult {
+    private String query;
+    private int total;      // matches across all pages
+    private int page;       // zero-based
+    private int size;
+    private List<Long> ids; // MySQL audit ids, newest first
+}
@@ -8,4 +8,6 @@ import lombok.Data;
 @Data
 public class AuthResponse {
     private String token;
+    private String refreshToken;
+    private long expiresIn; // access token lifetime in seconds
 }
\ No newline at end of file
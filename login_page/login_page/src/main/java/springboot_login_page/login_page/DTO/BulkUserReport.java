@@ -0,0 +1,29 @@
+package springboot_login_page.login_page.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class BulkUserReport {
+
+    public enum Status { CREATED, DELETED, EXISTS, NOT_FOUND, DUPLICATE, INVALID, FAILED }
+
+    private int requested;
+    private int succeeded;
+    private Map<String, Integer> perBackend = new LinkedHashMap<>(); // rows written or removed per backend
+    private List<RowResult> results = new ArrayList<>();            // one per requested row, in request order
+    private long durationMillis;
+
+    @AllArgsConstructor
+    @Data
+    public static class RowResult {
+        private String username;
+        private Status status;
+        private String message;
+    }
+}
@@ -0,0 +1,9 @@
+
+package springboot_login_page.login_page.DTO;
+
+import lombok.Data;
+
+@Data
+public class RefreshRequest {
+    private String refreshToken;
+}
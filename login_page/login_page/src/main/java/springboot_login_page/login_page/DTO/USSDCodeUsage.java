@@ -0,0 +1,15 @@
+package springboot_login_page.login_page.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Data
+public class USSDCodeUsage {
+    private Long codeId;
+    private String code;            // null when the code no longer exists
+    private long hits;
+    private LocalDateTime lastUsedAt; // null when never used
+}
@@ -0,0 +1,13 @@
+package springboot_login_page.login_page.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Data
+public class USSDCodeUsageBucket {
+    private LocalDateTime bucketStart; // start of the hour
+    private long hits;
+}
@@ -0,0 +1,24 @@
+package springboot_login_page.login_page.DTO;
+
+import springboot_login_page.login_page.Entity.USSDCode;
+
+/**
+ * Immutable copy of a USSD code as held by the in-memory catalog and its indexes.
+ * Shared across request threads, so it must never be a managed entity.
+ */
+public record USSDCodeView(Long id, String code, String description, boolean active) {
+
+    public static USSDCodeView of(USSDCode source) {
+        return new USSDCodeView(source.getId(), source.getCode(), source.getDescription(), source.isActive());
+    }
+
+    // A detached entity of the caller's own, for code paths that still work with entities
+    public USSDCode toEntity() {
+        USSDCode entity = new USSDCode();
+        entity.setId(id);
+        entity.setCode(code);
+        entity.setDescription(description);
+        entity.setActive(active);
+        return entity;
+    }
+}
@@ -0,0 +1,31 @@
+package springboot_login_page.login_page.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class USSDImportReport {
+    private int totalRows;
+    private int validRows;       // passed validation and were not repeated in the file
+    private int invalidRows;
+    private int duplicateRows;   // repeated a code seen earlier in the same file
+    private int batches;
+    private Map<String, Integer> inserted = new LinkedHashMap<>();         // per backend
+    private Map<String, Integer> alreadyPresent = new LinkedHashMap<>();   // per backend, skipped
+    private Map<String, Integer> failedRows = new LinkedHashMap<>();       // per backend, batch write failed
+    private List<RowError> errors = new ArrayList<>();                    // first few only
+    private long durationMillis;
+
+    @AllArgsConstructor
+    @Data
+    public static class RowError {
+        private int line;
+        private String code;
+        private String message;
+    }
+}
@@ -0,0 +1,17 @@
+
+package springboot_login_page.login_page.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Data
+public class USSDResolveResponse {
+    private String dialString;
+    private Long codeId;
+    private String code;
+    private String description;
+    private List<String> params;
+}
@@ -0,0 +1,12 @@
+
+package springboot_login_page.login_page.DTO;
+
+import lombok.Data;
+
+@Data
+public class USSDSessionRequest {
+    private String sessionId;   // gateway session id; generated when absent on start
+    private String msisdn;      // on advance, checked against the session when present
+    private String dialString;  // start only, e.g. *123*456#
+    private String input;       // advance only, the subscriber's reply
+}
@@ -0,0 +1,18 @@
+
+package springboot_login_page.login_page.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@AllArgsConstructor
+@Data
+public class USSDSessionResponse {
+    private String sessionId;
+    private String msisdn;      // digits only, leading zeros kept
+    private long codeId;
+    private String code;
+    private int step;
+    private String path;        // '*'-joined dial parameters and inputs so far
+    private long ageMillis;
+    private boolean active;
+}
@@ -0,0 +1,16 @@
+package springboot_login_page.login_page.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import springboot_login_page.login_page.Entity.User;
+
+// Read model for user listings and profiles: no password hash, no UserDetails getters
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class UserSummary {
+    private Long id;
+    private String username;
+    private User.Role role;
+}
@@ -0,0 +1,33 @@
+
+package springboot_login_page.login_page.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "jwt_signing_keys")
+@Data
+public class JwtSigningKey {
+
+    @Id
+    @Column(name = "kid", length = 36)
+    private String kid;
+
+    @Column(name = "algorithm", nullable = false, length = 10)
+    private String algorithm;
+
+    // "v1:" + base64 AES-GCM sealed PKCS#8 (older rows: plain base64 PKCS#8, sealed on next load)
+    @Lob
+    @Column(name = "private_key", nullable = false, columnDefinition = "TEXT")
+    private String privateKey;
+
+    // Base64 X.509 SubjectPublicKeyInfo
+    @Lob
+    @Column(name = "public_key", nullable = false, columnDefinition = "TEXT")
+    private String publicKey;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,38 @@
+
+package springboot_login_page.login_page.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "token_revocations")
+@Data
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "revocation_type", nullable = false, length = 10)
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    // The token's jti for TOKEN revocations, the username for USER revocations
+    @Column(name = "revoked_key", nullable = false, length = 100)
+    private String revokedKey;
+
+    // USER revocations: tokens issued before this instant are rejected
+    @Column(name = "not_before")
+    private LocalDateTime notBefore;
+
+    // After this instant every affected token has expired and the row can be purged
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public enum Type {
+        TOKEN,
+        USER
+    }
+}
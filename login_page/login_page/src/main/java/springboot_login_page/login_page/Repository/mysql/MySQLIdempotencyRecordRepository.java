@@ -0,0 +1,54 @@
+package springboot_login_page.login_page.Repository.mysql;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import springboot_login_page.login_page.Entity.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface MySQLIdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByKeyHash(String keyHash);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.contentType = :contentType, " +
+            "r.responseBody = :responseBody WHERE r.keyHash = :keyHash AND r.ownerToken = :ownerToken")
+    int complete(@Param("keyHash") String keyHash,
+                 @Param("ownerToken") String ownerToken,
+                 @Param("statusCode") int statusCode,
+                 @Param("contentType") String contentType,
+                 @Param("responseBody") String responseBody);
+
+    // Takes over a claim whose owner has not finished within the lease; only one caller wins
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :now, r.ownerToken = :ownerToken " +
+            "WHERE r.keyHash = :keyHash AND r.statusCode = 0 AND r.createdAt < :staleBefore")
+    int takeOver(@Param("keyHash") String keyHash,
+                 @Param("ownerToken") String ownerToken,
+                 @Param("now") LocalDateTime now,
+                 @Param("staleBefore") LocalDateTime staleBefore);
+
+    // Heartbeat: keeps the leases of claims still being processed from going stale
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.createdAt = :now " +
+            "WHERE r.ownerToken IN :ownerTokens AND r.statusCode = 0")
+    int renew(@Param("ownerTokens") Collection<String> ownerTokens, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.keyHash = :keyHash AND r.ownerToken = :ownerToken")
+    int deleteByKeyHash(@Param("keyHash") String keyHash, @Param("ownerToken") String ownerToken);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,12 @@
+
+package springboot_login_page.login_page.Repository.mysql;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import springboot_login_page.login_page.Entity.JwtSigningKey;
+
+import java.util.List;
+
+public interface MySQLJwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+
+    List<JwtSigningKey> findAllByOrderByCreatedAtDesc();
+}
@@ -0,0 +1,24 @@
+
+package springboot_login_page.login_page.Repository.mysql;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import springboot_login_page.login_page.Entity.TokenRevocation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MySQLTokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    List<TokenRevocation> findByExpiresAtAfterOrderByIdAsc(LocalDateTime now);
+
+    List<TokenRevocation> findByIdGreaterThanOrderByIdAsc(Long id);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TokenRevocation t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -2,9 +2,29 @@
 package springboot_login_page.login_page.Repository.mysql;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import springboot_login_page.login_page.Entity.USSDCode;
 import java.util.Optional;
 
 public interface MySQLUSSDCodeRepository extends JpaRepository<USSDCode, Long> {
     Optional<USSDCode> findByCode(String code);
+
+    // MySQL ids are authoritative; the code guards against a stale before-image
+    @Modifying
+    @Transactional
+    @Query("UPDATE USSDCode u SET u.code = :newCode, u.description = :description, u.active = :active " +
+            "WHERE u.id = :id AND u.code = :code")
+    int updateByIdAndCode(@Param("id") Long id,
+                          @Param("code") String code,
+                          @Param("newCode") String newCode,
+                          @Param("description") String description,
+                          @Param("active") boolean active);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM USSDCode u WHERE u.id = :id AND u.code = :code")
+    int deleteByIdAndCode(@Param("id") Long id, @Param("code") String code);
 }
\ No newline at end of file
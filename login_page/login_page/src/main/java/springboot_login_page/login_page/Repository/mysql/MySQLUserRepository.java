@@ -1,10 +1,23 @@
 
 package springboot_login_page.login_page.Repository.mysql;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import springboot_login_page.login_page.DTO.UserSummary;
 import springboot_login_page.login_page.Entity.User;
 import java.util.Optional;
 
 public interface MySQLUserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    @Query(value = "SELECT new springboot_login_page.login_page.DTO.UserSummary(u.id, u.username, u.role) FROM User u",
+            countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserSummary> findAllSummaries(Pageable pageable);
+
+    @Query("SELECT new springboot_login_page.login_page.DTO.UserSummary(u.id, u.username, u.role) " +
+            "FROM User u WHERE u.username = :username")
+    Optional<UserSummary> findSummaryByUsername(@Param("username") String username);
 }
\ No newline at end of file
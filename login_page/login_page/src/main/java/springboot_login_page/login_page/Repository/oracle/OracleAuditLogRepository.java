@@ -9,23 +9,9 @@ import org.springframework.transaction.annotation.Transactional;
 import springboot_login_page.login_page.Entity.AuditLog;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 public interface OracleAuditLogRepository extends JpaRepository<AuditLog, Long> {
 
-    List<AuditLog> findByUserIdOrderByTimestampDesc(String userId);
-
-    List<AuditLog> findByActionOrderByTimestampDesc(String action);
-
-    List<AuditLog> findByEntityTypeOrderByTimestampDesc(String entityType);
-
-    List<AuditLog> findByEntityIdOrderByTimestampDesc(String entityId);
-
-    @Query("SELECT a FROM AuditLog a WHERE a.timestamp BETWEEN :start AND :end ORDER BY a.timestamp DESC")
-    List<AuditLog> findByDateRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
-    List<AuditLog> findAllByOrderByTimestampDesc();
-
     @Modifying
     @Transactional
     @Query(value = "INSERT INTO audit_logs (id, action, changes, details, entity_id, entity_type, ip_address, timestamp, user_id, username) " +
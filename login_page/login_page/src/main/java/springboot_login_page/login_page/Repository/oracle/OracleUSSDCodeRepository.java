@@ -2,9 +2,27 @@
 package springboot_login_page.login_page.Repository.oracle;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import springboot_login_page.login_page.Entity.USSDCode;
 import java.util.Optional;
 
 public interface OracleUSSDCodeRepository extends JpaRepository<USSDCode, Long> {
     Optional<USSDCode> findByCode(String code);
+
+    // Keyed by code because generated ids differ between backends
+    @Modifying
+    @Transactional
+    @Query("UPDATE USSDCode u SET u.code = :newCode, u.description = :description, u.active = :active WHERE u.code = :code")
+    int updateByCode(@Param("code") String code,
+                     @Param("newCode") String newCode,
+                     @Param("description") String description,
+                     @Param("active") boolean active);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM USSDCode u WHERE u.code = :code")
+    int deleteByCode(@Param("code") String code);
 }
\ No newline at end of file
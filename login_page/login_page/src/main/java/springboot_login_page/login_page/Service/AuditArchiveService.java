@@ -0,0 +1,533 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import springboot_login_page.login_page.DTO.AuditLogSummary;
+import springboot_login_page.login_page.Entity.AuditLog;
+import springboot_login_page.login_page.util.BloomFilter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold tier for the audit trail.
+ *
+ * Rows older than the retention age are read from all three databases, de-duplicated,
+ * written to an immutable gzip segment per time window, and only then deleted from the
+ * databases. Inside a segment each column is stored contiguously, with the changes and
+ * details LOBs last, so list queries stop decompressing before reaching them. The
+ * uncompressed header holds the row count, min/max timestamp and id, and a Bloom
+ * filter of user ids; those headers stay in memory and let a query skip segments
+ * without opening them.
+ *
+ * Archiving holds the "audit-logs" scheduler lock, so it runs on one node at a time and
+ * never overlaps AuditSyncService, which would copy a half-deleted window back.
+ */
+@Service
+public class AuditArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditArchiveService.class);
+    private static final int MAGIC = 0x41415231; // "AAR1"
+    private static final long NO_ID = Long.MIN_VALUE;
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String COLUMNS =
+            "id, timestamp, user_id, username, action, entity_type, entity_id, ip_address, changes, details";
+
+    private final List<Backend> backends;
+    private final Path directory;
+    private final SchedulerLockService schedulerLocks;
+
+    @Value("${audit.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${audit.archive.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${audit.archive.window-hours:24}")
+    private int windowHours;
+
+    @Value("${audit.archive.lock-lease-ms:3600000}")
+    private long lockLeaseMs;
+
+    private volatile List<Segment> segments = List.of();
+
+    public AuditArchiveService(@Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbc,
+                               @Qualifier("oracleJdbcTemplate") JdbcTemplate oracleJdbc,
+                               @Qualifier("postgresqlJdbcTemplate") JdbcTemplate postgresqlJdbc,
+                               @Qualifier("mysqlTransactionManager") PlatformTransactionManager mysqlTx,
+                               @Qualifier("oracleTransactionManager") PlatformTransactionManager oracleTx,
+                               @Qualifier("postgresqlTransactionManager") PlatformTransactionManager postgresqlTx,
+                               @Value("${audit.archive.dir:data/audit-archive}") String directory,
+                               SchedulerLockService schedulerLocks) {
+        // MySQL first, so a record present there keeps its MySQL id in the archive
+        this.backends = List.of(
+                new Backend("MySQL", mysqlJdbc, new TransactionTemplate(mysqlTx)),
+                new Backend("Oracle", oracleJdbc, new TransactionTemplate(oracleTx)),
+                new Backend("PostgreSQL", postgresqlJdbc, new TransactionTemplate(postgresqlTx)));
+        this.directory = Paths.get(directory);
+        this.schedulerLocks = schedulerLocks;
+    }
+
+    private record Backend(String name, JdbcTemplate jdbc, TransactionTemplate tx) {
+    }
+
+    private record Segment(Path file, int rows, LocalDateTime minTimestamp, LocalDateTime maxTimestamp,
+                           long minId, long maxId, BloomFilter userIds, long bodyOffset) {
+    }
+
+    @PostConstruct
+    public void open() {
+        try {
+            Files.createDirectories(directory);
+            List<Segment> loaded = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".tmp")) {
+                        Files.deleteIfExists(file); // left over from an interrupted run; its rows were not deleted
+                    } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                        loaded.add(readHeader(file));
+                    }
+                }
+            }
+            loaded.sort(Comparator.comparing(Segment::minTimestamp));
+            segments = List.copyOf(loaded);
+            log.info("Audit archive opened with {} segment(s) in {}", loaded.size(), directory.toAbsolutePath());
+        } catch (IOException e) {
+            log.error("Failed to open audit archive in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    // Picks up segments written by whichever node ran the archive, when the directory is shared
+    @Scheduled(fixedDelayString = "${audit.archive.refresh-ms:300000}",
+            initialDelayString = "${audit.archive.refresh-ms:300000}")
+    public synchronized void refresh() {
+        Map<Path, Segment> known = new HashMap<>();
+        for (Segment segment : segments) known.put(segment.file(), segment);
+        List<Segment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                Segment segment = known.get(file);
+                loaded.add(segment != null ? segment : readHeader(file));
+            }
+        } catch (IOException e) {
+            log.warn("Failed to refresh audit archive segments in {}: {}", directory, e.getMessage());
+            return;
+        }
+        loaded.sort(Comparator.comparing(Segment::minTimestamp));
+        segments = List.copyOf(loaded);
+    }
+
+    /**
+     * Moves rows older than the retention age into segments, one window at a time.
+     * A window is archived only when every backend could be read, and rows are deleted
+     * only after the segment is on disk and published, so a failure either leaves them
+     * in the databases or leaves copies that the next run deletes without archiving again.
+     */
+    @Scheduled(cron = "${audit.archive.cron:0 30 3 * * *}")
+    public synchronized void archive() {
+        if (!enabled) return;
+        if (!schedulerLocks.tryLock(SchedulerLockService.AUDIT_LOGS, lockLeaseMs)) {
+            log.info("Audit archiving skipped; another node holds the audit lock");
+            return;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays).truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime oldest = oldestTimestamp();
+            if (oldest == null || !oldest.isBefore(cutoff)) return;
+
+            long archived = 0;
+            LocalDateTime windowStart = oldest.truncatedTo(ChronoUnit.HOURS);
+            while (windowStart.isBefore(cutoff)) {
+                LocalDateTime windowEnd = windowStart.plusHours(windowHours);
+                if (windowEnd.isAfter(cutoff)) windowEnd = cutoff;
+                // Renewing per window keeps the lease alive for long runs and notices if it was lost
+                if (!schedulerLocks.tryLock(SchedulerLockService.AUDIT_LOGS, lockLeaseMs)) {
+                    log.error("Audit archiving stopped at {}: lost the audit lock", windowStart);
+                    break;
+                }
+                try {
+                    archived += archiveWindow(windowStart, windowEnd);
+                } catch (Exception e) {
+                    log.error("Audit archiving stopped at {}: {}", windowStart, e.getMessage());
+                    break;
+                }
+                windowStart = windowEnd;
+            }
+            if (archived > 0) {
+                log.info("Archived {} audit record(s) older than {}", archived, cutoff);
+            }
+        } finally {
+            schedulerLocks.unlock(SchedulerLockService.AUDIT_LOGS);
+        }
+    }
+
+    /**
+     * Runs a job that copies audit rows between backends while holding the archive's lock,
+     * so it cannot bring back rows that an archive run has deleted from some backends only.
+     * Returns false, without running the job, when an archive run holds the lock.
+     */
+    public synchronized boolean runExclusive(Runnable job) {
+        if (!enabled) {
+            job.run();
+            return true;
+        }
+        if (!schedulerLocks.tryLock(SchedulerLockService.AUDIT_LOGS, lockLeaseMs)) return false;
+        try {
+            job.run();
+            return true;
+        } finally {
+            schedulerLocks.unlock(SchedulerLockService.AUDIT_LOGS);
+        }
+    }
+
+    private LocalDateTime oldestTimestamp() {
+        LocalDateTime oldest = null;
+        for (Backend backend : backends) {
+            try {
+                Timestamp min = backend.jdbc().queryForObject("SELECT MIN(timestamp) FROM audit_logs", Timestamp.class);
+                if (min != null && (oldest == null || min.toLocalDateTime().isBefore(oldest))) {
+                    oldest = min.toLocalDateTime();
+                }
+            } catch (Exception e) {
+                log.warn("{} unavailable for audit archiving: {}", backend.name(), e.getMessage());
+                return null; // every backend must take part, or its rows would be archived twice later
+            }
+        }
+        return oldest;
+    }
+
+    int archiveWindow(LocalDateTime from, LocalDateTime to) throws IOException {
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+
+        // The same record usually exists on every backend; keep one copy of each
+        Map<String, AuditLog> rows = new LinkedHashMap<>();
+        for (Backend backend : backends) {
+            backend.jdbc().query("SELECT " + COLUMNS + " FROM audit_logs WHERE timestamp >= ? AND timestamp < ?",
+                    rs -> {
+                        AuditLog row = AuditLog.builder()
+                                .id(backend == backends.get(0) ? rs.getLong("id") : null)
+                                .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+                                .userId(rs.getString("user_id"))
+                                .username(rs.getString("username"))
+                                .action(rs.getString("action"))
+                                .entityType(rs.getString("entity_type"))
+                                .entityId(rs.getString("entity_id"))
+                                .ipAddress(rs.getString("ip_address"))
+                                .changes(rs.getString("changes"))
+                                .details(rs.getString("details"))
+                                .build();
+                        rows.putIfAbsent(recordKey(row), row);
+                    }, start, end);
+        }
+        if (rows.isEmpty()) return 0;
+
+        // An earlier run may have written this window and then failed part-way through the deletes
+        rows.keySet().removeAll(archivedKeys(from, to));
+        if (!rows.isEmpty()) {
+            List<AuditLog> sorted = new ArrayList<>(rows.values());
+            sorted.sort(Comparator.comparing(AuditLog::getTimestamp));
+            Segment segment = writeSegment(sorted, from);
+
+            // Published before any delete, so reads never miss rows that are in neither place
+            List<Segment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            updated.sort(Comparator.comparing(Segment::minTimestamp));
+            segments = List.copyOf(updated);
+        }
+
+        for (Backend backend : backends) {
+            Integer deleted = backend.tx().execute(status -> backend.jdbc().update(
+                    "DELETE FROM audit_logs WHERE timestamp >= ? AND timestamp < ?", start, end));
+            log.debug("Deleted {} archived audit row(s) from {}", deleted, backend.name());
+        }
+        return rows.size();
+    }
+
+    // Keys of the records already archived with a timestamp in [from, to)
+    private Set<String> archivedKeys(LocalDateTime from, LocalDateTime to) throws IOException {
+        AuditQueryService.Filter window = new AuditQueryService.Filter(null, null, null, null, from, to);
+        List<AuditLogSummary> archived = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (mightMatch(segment, window)) readSummaries(segment, window, archived);
+        }
+        Set<String> keys = new HashSet<>();
+        for (AuditLogSummary row : archived) {
+            if (row.getTimestamp().isBefore(to)) {
+                keys.add(recordKey(row.getTimestamp(), row.getUserId(), row.getAction(), row.getEntityType(),
+                        row.getEntityId(), row.getIpAddress()));
+            }
+        }
+        return keys;
+    }
+
+    // Summaries of archived rows matching the filter, newest first
+    /**
+     * The newest matches, at most limit of them (0 for all). Segments are read newest first,
+     * and reading stops once no older segment can hold a row newer than the last one kept.
+     */
+    public List<AuditLogSummary> scan(AuditQueryService.Filter filter, int limit) {
+        List<Segment> newestFirst = new ArrayList<>(segments);
+        newestFirst.sort(Comparator.comparing(Segment::maxTimestamp).reversed());
+        List<AuditLogSummary> matches = new ArrayList<>();
+        for (Segment segment : newestFirst) {
+            if (limit > 0 && matches.size() == limit
+                    && segment.maxTimestamp().isBefore(matches.get(limit - 1).getTimestamp())) {
+                break;
+            }
+            if (!mightMatch(segment, filter)) continue;
+            try {
+                readSummaries(segment, filter, matches);
+            } catch (IOException e) {
+                log.error("Failed to read audit archive segment {}: {}", segment.file(), e.getMessage());
+            }
+            matches.sort(Comparator.comparing(AuditLogSummary::getTimestamp).reversed());
+            if (limit > 0 && matches.size() > limit) {
+                matches = new ArrayList<>(matches.subList(0, limit));
+            }
+        }
+        return matches;
+    }
+
+    // Full archived record by its MySQL id, pruned by each segment's id range
+    public Optional<AuditLog> findById(long id) {
+        for (Segment segment : segments) {
+            if (segment.minId() == NO_ID || id < segment.minId() || id > segment.maxId()) continue;
+            try {
+                Optional<AuditLog> found = readById(segment, id);
+                if (found.isPresent()) return found;
+            } catch (IOException e) {
+                log.error("Failed to read audit archive segment {}: {}", segment.file(), e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean mightMatch(Segment segment, AuditQueryService.Filter filter) {
+        if (filter.from() != null && segment.maxTimestamp().isBefore(filter.from())) return false;
+        if (filter.to() != null && segment.minTimestamp().isAfter(filter.to())) return false;
+        return filter.userId() == null || segment.userIds().mightContain(filter.userId());
+    }
+
+    private static boolean matches(AuditQueryService.Filter filter, LocalDateTime timestamp, String userId,
+                                   String action, String entityType, String entityId) {
+        return (filter.from() == null || !timestamp.isBefore(filter.from()))
+                && (filter.to() == null || !timestamp.isAfter(filter.to()))
+                && (filter.userId() == null || filter.userId().equals(userId))
+                && (filter.action() == null || filter.action().equals(action))
+                && (filter.entityType() == null || filter.entityType().equals(entityType))
+                && (filter.entityId() == null || filter.entityId().equals(entityId));
+    }
+
+    // Ids are assigned per backend, so a record is identified by its content
+    private static String recordKey(AuditLog row) {
+        return recordKey(row.getTimestamp(), row.getUserId(), row.getAction(), row.getEntityType(),
+                row.getEntityId(), row.getIpAddress());
+    }
+
+    private static String recordKey(LocalDateTime timestamp, String userId, String action, String entityType,
+                                    String entityId, String ipAddress) {
+        return timestamp + "\n" + userId + "\n" + action + "\n" + entityType + "\n" + entityId + "\n" + ipAddress;
+    }
+
+    /*
+     * Layout: header (magic, row count, min/max timestamp, min/max id, user id Bloom filter),
+     * then a gzip body holding one column after another: ids, timestamps, user ids, usernames,
+     * actions, entity types, entity ids, IP addresses, changes, details.
+     */
+    private Segment writeSegment(List<AuditLog> rows, LocalDateTime windowStart) throws IOException {
+        LocalDateTime minTimestamp = rows.get(0).getTimestamp();
+        LocalDateTime maxTimestamp = rows.get(rows.size() - 1).getTimestamp();
+        long minId = NO_ID, maxId = NO_ID;
+        BloomFilter userIds = new BloomFilter(rows.size(), 0.01);
+        for (AuditLog row : rows) {
+            if (row.getId() != null) {
+                minId = minId == NO_ID ? row.getId() : Math.min(minId, row.getId());
+                maxId = maxId == NO_ID ? row.getId() : Math.max(maxId, row.getId());
+            }
+            if (row.getUserId() != null) userIds.put(row.getUserId());
+        }
+
+        String name = SEGMENT_PREFIX + windowStart.toString().replace(":", "") + "-" + System.currentTimeMillis();
+        Path file = directory.resolve(name + SEGMENT_SUFFIX);
+        Path tmp = directory.resolve(name + SEGMENT_SUFFIX + ".tmp");
+        long bodyOffset;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            DataOutputStream header = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            header.writeInt(MAGIC);
+            header.writeInt(rows.size());
+            header.writeLong(toMicros(minTimestamp));
+            header.writeLong(toMicros(maxTimestamp));
+            header.writeLong(minId);
+            header.writeLong(maxId);
+            userIds.writeTo(header);
+            header.flush();
+            bodyOffset = channel.position();
+
+            GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            DataOutputStream body = new DataOutputStream(new BufferedOutputStream(gzip, 64 * 1024));
+            for (AuditLog row : rows) body.writeLong(row.getId() != null ? row.getId() : NO_ID);
+            for (AuditLog row : rows) body.writeLong(toMicros(row.getTimestamp()));
+            for (AuditLog row : rows) writeString(body, row.getUserId());
+            for (AuditLog row : rows) writeString(body, row.getUsername());
+            for (AuditLog row : rows) writeString(body, row.getAction());
+            for (AuditLog row : rows) writeString(body, row.getEntityType());
+            for (AuditLog row : rows) writeString(body, row.getEntityId());
+            for (AuditLog row : rows) writeString(body, row.getIpAddress());
+            for (AuditLog row : rows) writeString(body, row.getChanges());
+            for (AuditLog row : rows) writeString(body, row.getDetails());
+            body.flush();
+            gzip.finish();
+            channel.force(true); // on disk before the database rows are deleted
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        return new Segment(file, rows.size(), minTimestamp, maxTimestamp, minId, maxId, userIds, bodyOffset);
+    }
+
+    private static Segment readHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an audit archive segment: " + file);
+            }
+            int rows = in.readInt();
+            LocalDateTime minTimestamp = fromMicros(in.readLong());
+            LocalDateTime maxTimestamp = fromMicros(in.readLong());
+            long minId = in.readLong();
+            long maxId = in.readLong();
+            BloomFilter userIds = BloomFilter.readFrom(in);
+            return new Segment(file, rows, minTimestamp, maxTimestamp, minId, maxId, userIds, channel.position());
+        }
+    }
+
+    private static DataInputStream openBody(Segment segment, FileChannel channel) throws IOException {
+        channel.position(segment.bodyOffset());
+        InputStream raw = Channels.newInputStream(channel);
+        return new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw, 64 * 1024), 64 * 1024));
+    }
+
+    // Reads only the summary columns; decompression stops before changes and details
+    private static void readSummaries(Segment segment, AuditQueryService.Filter filter,
+                                      List<AuditLogSummary> out) throws IOException {
+        int n = segment.rows();
+        try (FileChannel channel = FileChannel.open(segment.file(), StandardOpenOption.READ);
+             DataInputStream in = openBody(segment, channel)) {
+            long[] ids = new long[n];
+            long[] timestamps = new long[n];
+            for (int i = 0; i < n; i++) ids[i] = in.readLong();
+            for (int i = 0; i < n; i++) timestamps[i] = in.readLong();
+            String[] userIds = readColumn(in, n);
+            String[] usernames = readColumn(in, n);
+            String[] actions = readColumn(in, n);
+            String[] entityTypes = readColumn(in, n);
+            String[] entityIds = readColumn(in, n);
+            String[] ipAddresses = readColumn(in, n);
+            for (int i = 0; i < n; i++) {
+                LocalDateTime timestamp = fromMicros(timestamps[i]);
+                if (matches(filter, timestamp, userIds[i], actions[i], entityTypes[i], entityIds[i])) {
+                    out.add(new AuditLogSummary(ids[i] != NO_ID ? ids[i] : null, timestamp, userIds[i], usernames[i],
+                            actions[i], entityTypes[i], entityIds[i], ipAddresses[i]));
+                }
+            }
+        }
+    }
+
+    private static Optional<AuditLog> readById(Segment segment, long id) throws IOException {
+        int n = segment.rows();
+        try (FileChannel channel = FileChannel.open(segment.file(), StandardOpenOption.READ);
+             DataInputStream in = openBody(segment, channel)) {
+            int at = -1;
+            for (int i = 0; i < n; i++) {
+                if (in.readLong() == id && at < 0) at = i;
+            }
+            if (at < 0) return Optional.empty();
+            long[] timestamps = new long[n];
+            for (int i = 0; i < n; i++) timestamps[i] = in.readLong();
+            String[][] columns = new String[8][];
+            for (int c = 0; c < columns.length; c++) columns[c] = readColumn(in, n);
+            return Optional.of(AuditLog.builder()
+                    .id(id)
+                    .timestamp(fromMicros(timestamps[at]))
+                    .userId(columns[0][at])
+                    .username(columns[1][at])
+                    .action(columns[2][at])
+                    .entityType(columns[3][at])
+                    .entityId(columns[4][at])
+                    .ipAddress(columns[5][at])
+                    .changes(columns[6][at])
+                    .details(columns[7][at])
+                    .build());
+        }
+    }
+
+    private static String[] readColumn(DataInputStream in, int n) throws IOException {
+        String[] values = new String[n];
+        for (int i = 0; i < n; i++) {
+            int length = in.readInt();
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                values[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return values;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Audit timestamps are zone-less local times; UTC is only used as a fixed reference
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
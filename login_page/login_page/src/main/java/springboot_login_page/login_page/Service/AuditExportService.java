@@ -0,0 +1,243 @@
+package springboot_login_page.login_page.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import springboot_login_page.login_page.util.CsvSupport;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams audit rows to a response as NDJSON or CSV.
+ *
+ * Rows come off a server-side cursor and are written as they arrive, so memory use
+ * does not depend on the size of the range. MySQL only streams with a fetch size of
+ * Integer.MIN_VALUE; PostgreSQL only uses a cursor inside a transaction, so every
+ * export runs in a read-only one.
+ */
+@Service
+public class AuditExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditExportService.class);
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String COLUMNS =
+            "id, timestamp, user_id, username, action, entity_type, entity_id, ip_address, changes, details";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Backend> backends;
+
+    public AuditExportService(@Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbc,
+                              @Qualifier("oracleJdbcTemplate") JdbcTemplate oracleJdbc,
+                              @Qualifier("postgresqlJdbcTemplate") JdbcTemplate postgresqlJdbc,
+                              @Qualifier("mysqlTransactionManager") PlatformTransactionManager mysqlTx,
+                              @Qualifier("oracleTransactionManager") PlatformTransactionManager oracleTx,
+                              @Qualifier("postgresqlTransactionManager") PlatformTransactionManager postgresqlTx,
+                              @Value("${audit.export.fetch-size:1000}") int fetchSize) {
+        this.backends = List.of(
+                new Backend("MySQL", streaming(mysqlJdbc, Integer.MIN_VALUE), readOnly(mysqlTx)),
+                new Backend("Oracle", streaming(oracleJdbc, fetchSize), readOnly(oracleTx)),
+                new Backend("PostgreSQL", streaming(postgresqlJdbc, fetchSize), readOnly(postgresqlTx)));
+    }
+
+    private record Backend(String name, JdbcTemplate jdbc, TransactionTemplate tx) {
+    }
+
+    // A separate template so the fetch size does not leak into the shared beans
+    private static JdbcTemplate streaming(JdbcTemplate shared, int fetchSize) {
+        JdbcTemplate jdbc = new JdbcTemplate(shared.getDataSource());
+        jdbc.setFetchSize(fetchSize);
+        return jdbc;
+    }
+
+    private static TransactionTemplate readOnly(PlatformTransactionManager tx) {
+        TransactionTemplate template = new TransactionTemplate(tx);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    /**
+     * Writes every row matching the filter, oldest first. Falls back to the next backend
+     * only while nothing has been written. A failure mid-stream must not look like a short
+     * file: NDJSON gets a final {"error": ...} record, a gzip stream is left without its
+     * trailer, and the exception is rethrown so the container drops the connection before
+     * the terminating chunk.
+     */
+    public long export(OutputStream out, USSDCodeBulkService.Format format, AuditQueryService.Filter filter,
+                       boolean gzip) throws IOException {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM audit_logs" + where(filter, params) + " ORDER BY timestamp, id";
+
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 64 * 1024) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(compressed != null ? compressed : out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rows = format == USSDCodeBulkService.Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        for (int i = 0; i < backends.size(); i++) {
+            Backend backend = backends.get(i);
+            try {
+                backend.tx().executeWithoutResult(status ->
+                        backend.jdbc().query(sql, rs -> {
+                            try {
+                                rows.write(rs);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }, params.toArray()));
+                break;
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // the client went away
+            } catch (RuntimeException e) {
+                if (rows.count() == 0 && i == backends.size() - 1) {
+                    log.error("Audit export failed on every backend: {}", e.getMessage());
+                    throw e; // nothing flushed yet, so the client still gets an error status
+                }
+                if (rows.count() > 0) {
+                    log.error("Audit export failed on {} after {} row(s): {}", backend.name(), rows.count(), e.getMessage());
+                    try {
+                        rows.fail(backend.name() + " failed after " + rows.count() + " row(s)");
+                        writer.flush();
+                    } catch (IOException suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
+                    throw e;
+                }
+                log.warn("{} audit unavailable for export, trying next backend: {}", backend.name(), e.getMessage());
+            }
+        }
+
+        rows.finish();
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        log.info("Exported {} audit log(s) as {}{}", rows.count(), format, gzip ? " (gzip)" : "");
+        return rows.count();
+    }
+
+    private static String where(AuditQueryService.Filter filter, List<Object> params) {
+        StringBuilder where = new StringBuilder();
+        condition(where, params, "user_id = ?", filter.userId());
+        condition(where, params, "action = ?", filter.action());
+        condition(where, params, "entity_type = ?", filter.entityType());
+        condition(where, params, "entity_id = ?", filter.entityId());
+        condition(where, params, "timestamp >= ?", filter.from() != null ? Timestamp.valueOf(filter.from()) : null);
+        condition(where, params, "timestamp <= ?", filter.to() != null ? Timestamp.valueOf(filter.to()) : null);
+        return where.toString();
+    }
+
+    private static void condition(StringBuilder where, List<Object> params, String predicate, Object value) {
+        if (value == null) return;
+        where.append(where.isEmpty() ? " WHERE " : " AND ").append(predicate);
+        params.add(value);
+    }
+
+    private static String formatTimestamp(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().format(TIMESTAMP_FORMAT) : null;
+    }
+
+    private abstract static class RowWriter {
+        long count;
+
+        abstract void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException {
+        }
+
+        // Marks the output as incomplete where the format allows it; CSV has no room for a trailer
+        void fail(String reason) throws IOException {
+        }
+
+        long count() {
+            return count;
+        }
+    }
+
+    private static final class CsvRowWriter extends RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(COLUMNS.replace(" ", ""));
+            writer.write('\n');
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong("id")));
+            writer.write(',');
+            writer.write(CsvSupport.escape(formatTimestamp(rs.getTimestamp("timestamp"))));
+            for (String column : new String[]{"user_id", "username", "action", "entity_type", "entity_id",
+                    "ip_address", "changes", "details"}) {
+                writer.write(',');
+                writer.write(CsvSupport.escape(rs.getString(column)));
+            }
+            writer.write('\n');
+            count++;
+        }
+    }
+
+    private final class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator json;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.json = objectMapper.getFactory().createGenerator(writer);
+            json.setRootValueSeparator(new SerializedString("\n"));
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeNumberField("id", rs.getLong("id"));
+            json.writeStringField("timestamp", formatTimestamp(rs.getTimestamp("timestamp")));
+            json.writeStringField("userId", rs.getString("user_id"));
+            json.writeStringField("username", rs.getString("username"));
+            json.writeStringField("action", rs.getString("action"));
+            json.writeStringField("entityType", rs.getString("entity_type"));
+            json.writeStringField("entityId", rs.getString("entity_id"));
+            json.writeStringField("ipAddress", rs.getString("ip_address"));
+            json.writeStringField("changes", rs.getString("changes"));
+            json.writeStringField("details", rs.getString("details"));
+            json.writeEndObject();
+            count++;
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (count > 0) json.writeRaw('\n');
+            json.flush();
+        }
+
+        @Override
+        void fail(String reason) throws IOException {
+            json.writeStartObject();
+            json.writeStringField("error", "export truncated: " + reason);
+            json.writeNumberField("rowsWritten", count);
+            json.writeEndObject();
+            json.writeRaw('\n');
+            json.flush();
+        }
+    }
+}
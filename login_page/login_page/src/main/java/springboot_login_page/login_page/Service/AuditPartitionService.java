@@ -0,0 +1,409 @@
+package springboot_login_page.login_page.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly range partitioning of audit_logs on every backend.
+ *
+ * With audit.partition.convert set, an unpartitioned table is converted in place at
+ * startup, as a one-off migration run on a single node: MySQL rebuilds it into one
+ * partition per month (the primary key becomes (id, timestamp), as MySQL requires the
+ * partition column in every unique key), Oracle switches to interval partitioning,
+ * which creates later months on first insert, and PostgreSQL attaches the existing
+ * table as a single partition for everything before next month so no rows are copied.
+ * The MySQL rebuild blocks writes to audit_logs until it finishes. A daily job keeps months-ahead empty partitions ready on MySQL and PostgreSQL and
+ * drops months older than the retention. While the archive is enabled a month is only
+ * dropped once the archive has emptied it. Conversion and maintenance hold the
+ * audit-logs scheduler lock, so nodes never race each other or the archive.
+ */
+@Service
+public class AuditPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditPartitionService.class);
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern MONTHLY = Pattern.compile("p(\\d{6})", Pattern.CASE_INSENSITIVE);
+    private static final Pattern HIGH_VALUE = Pattern.compile("(\\d{4})-(\\d{2})-(\\d{2})");
+    private static final String[] INDEXES =
+            {"idx_audit_logs_ts_id", "idx_audit_logs_user_ts", "idx_audit_logs_action_ts", "idx_audit_logs_entity_ts"};
+
+    private final List<Partitioner> partitioners;
+    private final SchedulerLockService schedulerLocks;
+
+    @Value("${audit.partition.enabled:false}")
+    private boolean enabled;
+
+    @Value("${audit.partition.convert:false}")
+    private boolean convert;
+
+    @Value("${audit.partition.lock-lease-ms:21600000}")
+    private long lockLeaseMs;
+
+    @Value("${audit.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${audit.partition.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${audit.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    public AuditPartitionService(@Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbc,
+                                 @Qualifier("oracleJdbcTemplate") JdbcTemplate oracleJdbc,
+                                 @Qualifier("postgresqlJdbcTemplate") JdbcTemplate postgresqlJdbc,
+                                 @Qualifier("postgresqlTransactionManager") PlatformTransactionManager postgresqlTx,
+                                 SchedulerLockService schedulerLocks) {
+        this.partitioners = List.of(
+                new MySQLPartitioner(mysqlJdbc),
+                new OraclePartitioner(oracleJdbc),
+                new PostgreSQLPartitioner(postgresqlJdbc, new TransactionTemplate(postgresqlTx)));
+        this.schedulerLocks = schedulerLocks;
+    }
+
+    // One month of audit_logs: [month, month + 1)
+    private record Partition(String name, YearMonth month) {
+    }
+
+    private abstract static class Partitioner {
+        final String name;
+        final JdbcTemplate jdbc;
+
+        Partitioner(String name, JdbcTemplate jdbc) {
+            this.name = name;
+            this.jdbc = jdbc;
+        }
+
+        abstract boolean isPartitioned();
+
+        abstract void convert(YearMonth through);
+
+        abstract List<Partition> partitions();
+
+        // Returns how many partitions were actually added
+        abstract int create(List<YearMonth> months);
+
+        abstract void drop(Partition partition);
+
+        YearMonth oldestMonth() {
+            Timestamp min = jdbc.queryForObject("SELECT MIN(timestamp) FROM audit_logs", Timestamp.class);
+            return min != null ? YearMonth.from(min.toLocalDateTime()) : YearMonth.now();
+        }
+
+        boolean isEmpty(Partition partition) {
+            // Bounded on the partition key, so only that partition is read
+            Integer rows = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM audit_logs WHERE timestamp >= ? AND timestamp < ?", Integer.class,
+                    Timestamp.valueOf(start(partition.month()).atStartOfDay()),
+                    Timestamp.valueOf(start(partition.month().plusMonths(1)).atStartOfDay()));
+            return rows == null || rows == 0;
+        }
+    }
+
+    // Runs before AuditQueryService creates its indexes, which then land on the partitioned table
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void partitionTables() {
+        if (!enabled) return;
+        if (!schedulerLocks.tryLock(SchedulerLockService.AUDIT_LOGS, lockLeaseMs)) {
+            log.info("Audit partitioning skipped at startup; another node holds the audit lock");
+            return;
+        }
+        try {
+            YearMonth through = YearMonth.now().plusMonths(monthsAhead);
+            for (Partitioner partitioner : partitioners) {
+                try {
+                    if (partitioner.isPartitioned()) continue;
+                    if (!convert) {
+                        log.warn("audit_logs on {} is not partitioned; set audit.partition.convert=true on one node "
+                                + "to convert it", partitioner.name);
+                        continue;
+                    }
+                    log.info("Partitioning audit_logs by month on {}", partitioner.name);
+                    partitioner.convert(through);
+                } catch (Exception e) {
+                    log.error("Failed to partition audit_logs on {}: {}", partitioner.name, e.getMessage());
+                }
+            }
+            maintainPartitions();
+        } finally {
+            schedulerLocks.unlock(SchedulerLockService.AUDIT_LOGS);
+        }
+    }
+
+    @Scheduled(cron = "${audit.partition.cron:0 30 4 * * *}")
+    public synchronized void maintain() {
+        if (!enabled) return;
+        if (!schedulerLocks.tryLock(SchedulerLockService.AUDIT_LOGS, lockLeaseMs)) {
+            log.info("Audit partition maintenance skipped; another node holds the audit lock");
+            return;
+        }
+        try {
+            maintainPartitions();
+        } finally {
+            schedulerLocks.unlock(SchedulerLockService.AUDIT_LOGS);
+        }
+    }
+
+    private void maintainPartitions() {
+        YearMonth current = YearMonth.now();
+        YearMonth through = current.plusMonths(monthsAhead);
+        YearMonth keepFrom = retentionMonths > 0 ? current.minusMonths(retentionMonths) : null;
+
+        for (Partitioner partitioner : partitioners) {
+            try {
+                if (!partitioner.isPartitioned()) continue;
+                List<Partition> existing = partitioner.partitions();
+
+                YearMonth last = existing.stream().map(Partition::month).max(YearMonth::compareTo).orElse(current.minusMonths(1));
+                List<YearMonth> missing = new ArrayList<>();
+                for (YearMonth month = last.plusMonths(1); !month.isAfter(through); month = month.plusMonths(1)) {
+                    missing.add(month);
+                }
+                if (!missing.isEmpty() && partitioner.create(missing) > 0) {
+                    log.info("Created {} audit_logs partition(s) on {} through {}", missing.size(), partitioner.name, through);
+                }
+
+                if (keepFrom == null) continue;
+                for (Partition partition : existing) {
+                    if (!partition.month().isBefore(keepFrom)) continue;
+                    if (archiveEnabled && !partitioner.isEmpty(partition)) {
+                        log.debug("Keeping {} on {} until its rows are archived", partition.name(), partitioner.name);
+                        continue;
+                    }
+                    partitioner.drop(partition);
+                    log.info("Dropped audit_logs partition {} ({}) on {}", partition.name(), partition.month(), partitioner.name);
+                }
+            } catch (Exception e) {
+                log.error("Audit partition maintenance failed on {}: {}", partitioner.name, e.getMessage());
+            }
+        }
+    }
+
+    private static LocalDate start(YearMonth month) {
+        return month.atDay(1);
+    }
+
+    private static String literal(YearMonth month) {
+        return "'" + start(month) + " 00:00:00'";
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "p" + month.format(SUFFIX);
+    }
+
+    private static List<Partition> monthly(List<String> names) {
+        List<Partition> partitions = new ArrayList<>();
+        for (String name : names) {
+            Matcher matcher = MONTHLY.matcher(name);
+            if (matcher.matches()) {
+                partitions.add(new Partition(name, YearMonth.parse(matcher.group(1), SUFFIX)));
+            }
+        }
+        return partitions;
+    }
+
+    private static final class MySQLPartitioner extends Partitioner {
+
+        MySQLPartitioner(JdbcTemplate jdbc) {
+            super("MySQL", jdbc);
+        }
+
+        private List<String> names() {
+            return jdbc.queryForList("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs' AND PARTITION_NAME IS NOT NULL "
+                    + "ORDER BY PARTITION_ORDINAL_POSITION", String.class);
+        }
+
+        @Override
+        boolean isPartitioned() {
+            return !names().isEmpty();
+        }
+
+        @Override
+        void convert(YearMonth through) {
+            StringJoiner partitions = new StringJoiner(", ", " (", ")");
+            for (YearMonth month = oldestMonth(); !month.isAfter(through); month = month.plusMonths(1)) {
+                partitions.add(definition(month));
+            }
+            partitions.add("PARTITION pmax VALUES LESS THAN (MAXVALUE)");
+            jdbc.execute("ALTER TABLE audit_logs DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp) "
+                    + "PARTITION BY RANGE COLUMNS (timestamp)" + partitions);
+        }
+
+        @Override
+        List<Partition> partitions() {
+            return monthly(names());
+        }
+
+        @Override
+        int create(List<YearMonth> months) {
+            StringJoiner partitions = new StringJoiner(", ", " (", ")");
+            months.forEach(month -> partitions.add(definition(month)));
+            if (names().stream().anyMatch("pmax"::equalsIgnoreCase)) {
+                // pmax only ever holds rows past the last month, so it is normally empty and this is cheap
+                partitions.add("PARTITION pmax VALUES LESS THAN (MAXVALUE)");
+                jdbc.execute("ALTER TABLE audit_logs REORGANIZE PARTITION pmax INTO" + partitions);
+            } else {
+                jdbc.execute("ALTER TABLE audit_logs ADD PARTITION" + partitions);
+            }
+            return months.size();
+        }
+
+        @Override
+        void drop(Partition partition) {
+            jdbc.execute("ALTER TABLE audit_logs DROP PARTITION " + partition.name());
+        }
+
+        private static String definition(YearMonth month) {
+            return "PARTITION " + partitionName(month) + " VALUES LESS THAN (" + literal(month.plusMonths(1)) + ")";
+        }
+    }
+
+    private static final class OraclePartitioner extends Partitioner {
+
+        OraclePartitioner(JdbcTemplate jdbc) {
+            super("Oracle", jdbc);
+        }
+
+        @Override
+        boolean isPartitioned() {
+            return "YES".equals(jdbc.queryForObject(
+                    "SELECT partitioned FROM user_tables WHERE table_name = 'AUDIT_LOGS'", String.class));
+        }
+
+        @Override
+        void convert(YearMonth through) {
+            // The anchor partition below the oldest row stays empty; interval partitions follow it
+            jdbc.execute("ALTER TABLE audit_logs MODIFY PARTITION BY RANGE (timestamp) "
+                    + "INTERVAL (NUMTOYMINTERVAL(1, 'MONTH')) "
+                    + "(PARTITION p_anchor VALUES LESS THAN (TIMESTAMP " + literal(oldestMonth()) + ")) "
+                    + "ONLINE UPDATE INDEXES");
+        }
+
+        @Override
+        List<Partition> partitions() {
+            List<Partition> partitions = new ArrayList<>();
+            // The anchor cannot be dropped while interval partitions exist, so it is left out
+            jdbc.query("SELECT partition_name, high_value FROM user_tab_partitions "
+                    + "WHERE table_name = 'AUDIT_LOGS' AND partition_position > 1", rs -> {
+                Matcher matcher = HIGH_VALUE.matcher(rs.getString("high_value"));
+                if (matcher.find()) {
+                    YearMonth upper = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                    partitions.add(new Partition(rs.getString("partition_name"), upper.minusMonths(1)));
+                }
+            });
+            return partitions;
+        }
+
+        @Override
+        int create(List<YearMonth> months) {
+            return 0; // interval partitioning adds each month on its first insert
+        }
+
+        @Override
+        void drop(Partition partition) {
+            jdbc.execute("ALTER TABLE audit_logs DROP PARTITION \"" + partition.name() + "\" UPDATE INDEXES");
+        }
+    }
+
+    private static final class PostgreSQLPartitioner extends Partitioner {
+        private final TransactionTemplate tx;
+
+        PostgreSQLPartitioner(JdbcTemplate jdbc, TransactionTemplate tx) {
+            super("PostgreSQL", jdbc);
+            this.tx = tx;
+        }
+
+        @Override
+        boolean isPartitioned() {
+            List<String> kind = jdbc.queryForList("SELECT relkind::text FROM pg_class "
+                    + "WHERE relname = 'audit_logs' AND pg_table_is_visible(oid)", String.class);
+            return !kind.isEmpty() && "p".equals(kind.get(0));
+        }
+
+        /*
+         * A partitioned table cannot be created from an existing one, so the old table is
+         * renamed and attached as the partition for everything before next month. The id
+         * column moves from the old table's identity to a sequence owned by the new parent,
+         * continuing after the highest existing id. All of it runs in one transaction.
+         */
+        @Override
+        void convert(YearMonth through) {
+            YearMonth first = YearMonth.now().plusMonths(1);
+            tx.executeWithoutResult(status -> {
+                jdbc.execute("LOCK TABLE audit_logs IN ACCESS EXCLUSIVE MODE");
+                Long maxId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM audit_logs", Long.class);
+
+                jdbc.execute("ALTER TABLE audit_logs RENAME TO audit_logs_legacy");
+                jdbc.execute("ALTER TABLE audit_logs_legacy ALTER COLUMN id DROP IDENTITY IF EXISTS");
+                jdbc.execute("ALTER TABLE audit_logs_legacy ALTER COLUMN id DROP DEFAULT");
+                for (String index : INDEXES) {
+                    jdbc.execute("DROP INDEX IF EXISTS " + index); // recreated on the parent by AuditQueryService
+                }
+
+                jdbc.execute("CREATE TABLE audit_logs (LIKE audit_logs_legacy, "
+                        + "CONSTRAINT audit_logs_part_pkey PRIMARY KEY (id, timestamp)) PARTITION BY RANGE (timestamp)");
+                jdbc.execute("CREATE SEQUENCE IF NOT EXISTS audit_logs_id_seq");
+                jdbc.execute("SELECT setval('audit_logs_id_seq', " + Math.max(maxId, 1) + ", " + (maxId > 0) + ")");
+                jdbc.execute("ALTER SEQUENCE audit_logs_id_seq OWNED BY audit_logs.id");
+                jdbc.execute("ALTER TABLE audit_logs ALTER COLUMN id SET DEFAULT nextval('audit_logs_id_seq')");
+
+                jdbc.execute("ALTER TABLE audit_logs ATTACH PARTITION audit_logs_legacy "
+                        + "FOR VALUES FROM (MINVALUE) TO (" + literal(first) + ")");
+                // At least one monthly partition, so maintenance never creates an overlapping current month
+                create(months(first, through.isBefore(first) ? first : through));
+            });
+        }
+
+        @Override
+        List<Partition> partitions() {
+            return monthly(jdbc.queryForList("SELECT substring(c.relname FROM 'p[0-9]{6}$') FROM pg_inherits i "
+                    + "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent "
+                    + "WHERE p.relname = 'audit_logs' AND c.relname ~ '^audit_logs_p[0-9]{6}$'", String.class));
+        }
+
+        @Override
+        int create(List<YearMonth> months) {
+            for (YearMonth month : months) {
+                jdbc.execute("CREATE TABLE IF NOT EXISTS audit_logs_" + partitionName(month)
+                        + " PARTITION OF audit_logs FOR VALUES FROM (" + literal(month) + ") TO ("
+                        + literal(month.plusMonths(1)) + ")");
+            }
+            return months.size();
+        }
+
+        @Override
+        void drop(Partition partition) {
+            jdbc.execute("DROP TABLE audit_logs_" + partition.name());
+        }
+
+        private static List<YearMonth> months(YearMonth from, YearMonth through) {
+            List<YearMonth> months = new ArrayList<>();
+            for (YearMonth month = from; !month.isAfter(through); month = month.plusMonths(1)) {
+                months.add(month);
+            }
+            return months;
+        }
+    }
+}
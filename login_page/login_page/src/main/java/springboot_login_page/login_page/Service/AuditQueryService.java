@@ -0,0 +1,470 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import springboot_login_page.login_page.DTO.AuditLogPage;
+import springboot_login_page.login_page.DTO.AuditLogSummary;
+import springboot_login_page.login_page.Entity.AuditLog;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filtered, keyset-paginated reads of the audit trail.
+ *
+ * Every filter becomes a predicate in SQL, and pages are walked newest first by
+ * (timestamp, id) so each page is an index range scan no matter how deep the client goes.
+ * The composite indexes backing those scans are created on all three backends at startup.
+ * Listings select summary columns only; the changes/details LOBs are never read here.
+ *
+ * Federated mode asks all three backends at once and merges their pages by timestamp,
+ * since best-effort writes leave each backend with rows the others may lack. Each backend
+ * query carries a JDBC timeout, because cancelling its future does not stop the statement,
+ * and a full worker queue answers 503 instead of piling up requests. Ids differ between
+ * backends, so a federated cursor keeps one id per backend.
+ */
+@Service
+public class AuditQueryService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditQueryService.class);
+    private static final String QUERY_TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+    private static final int SOURCES = 3;
+
+    @PersistenceContext(unitName = "mysqlPU")
+    private EntityManager mysqlEm;
+
+    @PersistenceContext(unitName = "oraclePU")
+    private EntityManager oracleEm;
+
+    @PersistenceContext(unitName = "postgresqlPU")
+    private EntityManager postgresqlEm;
+
+    private final JdbcTemplate mysqlJdbc;
+    private final JdbcTemplate oracleJdbc;
+    private final JdbcTemplate postgresqlJdbc;
+    private final ThreadPoolExecutor federatedPool;
+    private final long federatedTimeoutMs;
+
+    public AuditQueryService(@Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbc,
+                             @Qualifier("oracleJdbcTemplate") JdbcTemplate oracleJdbc,
+                             @Qualifier("postgresqlJdbcTemplate") JdbcTemplate postgresqlJdbc,
+                             @Value("${audit.federated.threads:6}") int federatedThreads,
+                             @Value("${audit.federated.timeout-ms:5000}") long federatedTimeoutMs,
+                             @Value("${audit.federated.queue-capacity:30}") int federatedQueueCapacity) {
+        this.mysqlJdbc = mysqlJdbc;
+        this.oracleJdbc = oracleJdbc;
+        this.postgresqlJdbc = postgresqlJdbc;
+        this.federatedTimeoutMs = federatedTimeoutMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.federatedPool = new ThreadPoolExecutor(federatedThreads, federatedThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(federatedQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "audit-federated-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private record Source(String name, EntityManager em) {
+    }
+
+    private record Head(AuditLogSummary row, Iterator<AuditLogSummary> rest) {
+    }
+
+    /**
+     * Any field may be null. Action and entity type are matched upper-cased, as they are stored.
+     */
+    public record Filter(String userId, String action, String entityType, String entityId,
+                         LocalDateTime from, LocalDateTime to) {
+
+        public Filter {
+            action = upper(action);
+            entityType = upper(entityType);
+            userId = blankToNull(userId);
+            entityId = blankToNull(entityId);
+        }
+
+        private static String upper(String value) {
+            String trimmed = blankToNull(value);
+            return trimmed != null ? trimmed.toUpperCase() : null;
+        }
+
+        private static String blankToNull(String value) {
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+
+    // Position of the last row handed out; the next page starts strictly after it
+    public record Cursor(LocalDateTime timestamp, long id) {
+
+        public String encode() {
+            String raw = timestamp + "," + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String token) {
+            if (token == null || token.isBlank()) return null;
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int comma = raw.lastIndexOf(',');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, comma)), Long.parseLong(raw.substring(comma + 1)));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+    }
+
+    public AuditLogPage query(Filter filter, String cursor, int limit) {
+        if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        Cursor after = Cursor.decode(cursor);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        // One extra row tells us whether another page exists without a COUNT
+        List<AuditLogSummary> rows = fetchWithFallback(filter, after, pageSize + 1);
+        String next = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            AuditLogSummary last = rows.get(pageSize - 1);
+            next = new Cursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new AuditLogPage(rows, pageSize, next, List.of());
+    }
+
+    /**
+     * Runs the query on every backend in parallel and merges the results newest first,
+     * dropping copies of the same record. A backend that fails or times out is skipped
+     * and named in the page. Pages end on a timestamp boundary, and the cursor resumes
+     * strictly before it; only a timestamp shared by more rows than fit in a page is
+     * split, by id on one backend.
+     */
+    public AuditLogPage queryFederated(Filter filter, String cursor, int limit) {
+        if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        Cursor[] after = decodeFederated(cursor);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<String> unavailable = new ArrayList<>();
+        List<List<AuditLogSummary>> results = answered(scatter(filter, after, pageSize + 1, unavailable));
+        if (results.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "No audit backend available");
+        }
+
+        // A backend that filled its page may hold more rows at or before its last timestamp,
+        // so only rows newer than the latest such timestamp are known to be complete
+        LocalDateTime boundary = null;
+        for (List<AuditLogSummary> rows : results) {
+            if (rows.size() > pageSize) {
+                LocalDateTime last = rows.get(rows.size() - 1).getTimestamp();
+                if (boundary == null || last.isAfter(boundary)) boundary = last;
+            }
+        }
+
+        List<AuditLogSummary> page = new ArrayList<>();
+        boolean more = boundary != null;
+        Iterator<List<AuditLogSummary>> groups = mergeByTimestamp(results);
+        while (groups.hasNext()) {
+            List<AuditLogSummary> group = groups.next();
+            if (boundary != null && !group.get(0).getTimestamp().isAfter(boundary)) break;
+            if (!page.isEmpty() && page.size() + group.size() > pageSize) {
+                more = true;
+                break;
+            }
+            page.addAll(group);
+        }
+        if (page.isEmpty() && boundary != null) {
+            return pageWithinTimestamp(filter, boundary, after, pageSize, unavailable);
+        }
+
+        String next = null;
+        if (more && !page.isEmpty()) {
+            // Long.MIN_VALUE turns the keyset predicate into timestamp < last
+            next = new Cursor(page.get(page.size() - 1).getTimestamp(), Long.MIN_VALUE).encode();
+        }
+        return new AuditLogPage(page, pageSize, next, unavailable);
+    }
+
+    /*
+     * More rows share one timestamp than fit in a page. Ids are per backend, so the timestamp
+     * is walked by id on one backend, the first that answers, and on later pages the same one.
+     * The cursor holds its last id and Long.MIN_VALUE for the others, so once the walk ends
+     * every backend resumes strictly before the timestamp. Rows of that instant the walked
+     * backend still lacks are skipped until the sync has copied them there.
+     */
+    private AuditLogPage pageWithinTimestamp(Filter filter, LocalDateTime timestamp, Cursor[] after, int pageSize,
+                                             List<String> unavailable) {
+        Filter exact = new Filter(filter.userId(), filter.action(), filter.entityType(), filter.entityId(),
+                timestamp, timestamp);
+        int walking = -1;
+        for (int i = 0; after != null && i < SOURCES && walking < 0; i++) {
+            if (after[i].timestamp().equals(timestamp) && after[i].id() != Long.MIN_VALUE) walking = i;
+        }
+
+        List<Source> sources = sources();
+        for (int i = 0; i < SOURCES; i++) {
+            int source = walking >= 0 ? (walking + i) % SOURCES : i;
+            Cursor from = source == walking ? after[source] : new Cursor(timestamp, Long.MAX_VALUE);
+            List<AuditLogSummary> rows;
+            try {
+                rows = fetch(sources.get(source).em(), exact, from, pageSize + 1, federatedTimeoutMs);
+            } catch (Exception e) {
+                // The next backend starts the walk over, so rows already handed out may repeat
+                String name = sources.get(source).name();
+                if (!unavailable.contains(name)) unavailable.add(name);
+                log.warn("{} audit unavailable for federated query: {}", name, e.getMessage());
+                continue;
+            }
+            long[] ids = new long[SOURCES];
+            Arrays.fill(ids, Long.MIN_VALUE);
+            if (rows.size() > pageSize) {
+                rows = new ArrayList<>(rows.subList(0, pageSize));
+                ids[source] = rows.get(pageSize - 1).getId();
+            }
+            return new AuditLogPage(rows, pageSize, encodeFederated(timestamp, ids), unavailable);
+        }
+        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "No audit backend available");
+    }
+
+    // A plain cursor applies to every backend; a mid-timestamp one carries an id for each
+    private static Cursor[] decodeFederated(String token) {
+        if (token == null || token.isBlank()) return null;
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(",");
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        if (parts.length == 2) {
+            Cursor shared = Cursor.decode(token);
+            return new Cursor[]{shared, shared, shared};
+        }
+        if (parts.length != SOURCES + 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        try {
+            LocalDateTime timestamp = LocalDateTime.parse(parts[0]);
+            Cursor[] cursors = new Cursor[SOURCES];
+            for (int i = 0; i < SOURCES; i++) cursors[i] = new Cursor(timestamp, Long.parseLong(parts[i + 1]));
+            return cursors;
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private static String encodeFederated(LocalDateTime timestamp, long[] ids) {
+        if (Arrays.stream(ids).allMatch(id -> id == Long.MIN_VALUE)) {
+            return new Cursor(timestamp, Long.MIN_VALUE).encode();
+        }
+        StringBuilder raw = new StringBuilder(timestamp.toString());
+        for (long id : ids) raw.append(',').append(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<List<AuditLogSummary>> answered(List<List<AuditLogSummary>> results) {
+        return results.stream().filter(Objects::nonNull).toList();
+    }
+
+    private List<Source> sources() {
+        return List.of(new Source("MySQL", mysqlEm), new Source("Oracle", oracleEm), new Source("PostgreSQL", postgresqlEm));
+    }
+
+    // One result per backend, in source order; null where the backend failed or timed out
+    private List<List<AuditLogSummary>> scatter(Filter filter, Cursor[] after, int limit, List<String> unavailable) {
+        List<Source> sources = sources();
+        List<Future<List<AuditLogSummary>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < sources.size(); i++) {
+                EntityManager em = sources.get(i).em();
+                Cursor from = after != null ? after[i] : null;
+                futures.add(federatedPool.submit(() -> fetch(em, filter, from, limit, federatedTimeoutMs)));
+            }
+        } catch (RejectedExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            log.warn("Federated audit query queue full, rejecting request");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many concurrent federated audit queries, retry later");
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(federatedTimeoutMs);
+        List<List<AuditLogSummary>> results = new ArrayList<>();
+        for (int i = 0; i < sources.size(); i++) {
+            try {
+                results.add(futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while querying audit backends");
+            } catch (ExecutionException | TimeoutException e) {
+                futures.get(i).cancel(true);
+                results.add(null);
+                unavailable.add(sources.get(i).name());
+                log.warn("{} audit unavailable for federated query: {}", sources.get(i).name(),
+                        e instanceof ExecutionException ? e.getCause().getMessage() : "timed out");
+            }
+        }
+        return results;
+    }
+
+    // K-way merge of newest-first lists, yielding one group per timestamp with duplicates removed
+    static Iterator<List<AuditLogSummary>> mergeByTimestamp(List<List<AuditLogSummary>> sources) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(
+                (a, b) -> b.row().getTimestamp().compareTo(a.row().getTimestamp()));
+        for (List<AuditLogSummary> rows : sources) {
+            Iterator<AuditLogSummary> rest = rows.iterator();
+            if (rest.hasNext()) heads.add(new Head(rest.next(), rest));
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public List<AuditLogSummary> next() {
+                LocalDateTime timestamp = heads.peek().row().getTimestamp();
+                Map<String, AuditLogSummary> group = new TreeMap<>();
+                while (!heads.isEmpty() && heads.peek().row().getTimestamp().equals(timestamp)) {
+                    Head head = heads.poll();
+                    group.putIfAbsent(recordKey(head.row()), head.row());
+                    if (head.rest().hasNext()) heads.add(new Head(head.rest().next(), head.rest()));
+                }
+                return new ArrayList<>(group.values());
+            }
+        };
+    }
+
+    // Ids are assigned per backend, so a record is identified by its content; sync copies keep it intact
+    private static String recordKey(AuditLogSummary row) {
+        return row.getTimestamp() + "\n" + row.getUserId() + "\n" + row.getAction() + "\n"
+                + row.getEntityType() + "\n" + row.getEntityId() + "\n" + row.getIpAddress();
+    }
+
+    // The newest matches, for the older unpaginated list endpoints
+    public List<AuditLogSummary> list(Filter filter, int limit) {
+        return fetchWithFallback(filter, null, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    private List<AuditLogSummary> fetchWithFallback(Filter filter, Cursor after, int limit) {
+        try {
+            return fetch(mysqlEm, filter, after, limit, 0);
+        } catch (Exception e) {
+            log.warn("MySQL audit unavailable, trying Oracle: {}", e.getMessage());
+            try {
+                return fetch(oracleEm, filter, after, limit, 0);
+            } catch (Exception ex) {
+                log.warn("Oracle audit unavailable, trying PostgreSQL: {}", ex.getMessage());
+                return fetch(postgresqlEm, filter, after, limit, 0);
+            }
+        }
+    }
+
+    // timeoutMs > 0 bounds the statement itself; drivers enforce it in whole seconds, so it rounds up to one
+    List<AuditLogSummary> fetch(EntityManager em, Filter filter, Cursor after, int limit, long timeoutMs) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<AuditLogSummary> cq = cb.createQuery(AuditLogSummary.class);
+        Root<AuditLog> audit = cq.from(AuditLog.class);
+        Path<LocalDateTime> timestamp = audit.get("timestamp");
+        Path<Long> id = audit.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (filter.userId() != null) where.add(cb.equal(audit.get("userId"), filter.userId()));
+        if (filter.action() != null) where.add(cb.equal(audit.get("action"), filter.action()));
+        if (filter.entityType() != null) where.add(cb.equal(audit.get("entityType"), filter.entityType()));
+        if (filter.entityId() != null) where.add(cb.equal(audit.get("entityId"), filter.entityId()));
+        if (filter.from() != null) where.add(cb.greaterThanOrEqualTo(timestamp, filter.from()));
+        if (filter.to() != null) where.add(cb.lessThanOrEqualTo(timestamp, filter.to()));
+        if (after != null) {
+            // The bare upper bound on timestamp lets partitioned tables prune newer months
+            where.add(cb.lessThanOrEqualTo(timestamp, after.timestamp()));
+            where.add(cb.or(cb.lessThan(timestamp, after.timestamp()), cb.lessThan(id, after.id())));
+        }
+
+        cq.select(cb.construct(AuditLogSummary.class,
+                        id, timestamp, audit.get("userId"), audit.get("username"), audit.get("action"),
+                        audit.get("entityType"), audit.get("entityId"), audit.get("ipAddress")))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(cb.desc(timestamp), cb.desc(id));
+        TypedQuery<AuditLogSummary> query = em.createQuery(cq);
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        if (timeoutMs > 0) {
+            query.setHint(QUERY_TIMEOUT_HINT, (int) Math.max(1000, timeoutMs));
+        }
+        return query.getResultList();
+    }
+
+    // Each index ends in (timestamp, id) so the filter, the ordering and the cursor share one range scan
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        String[][] indexes = {
+                {"idx_audit_logs_ts_id", "timestamp, id"},
+                {"idx_audit_logs_user_ts", "user_id, timestamp, id"},
+                {"idx_audit_logs_action_ts", "action, timestamp, id"},
+                {"idx_audit_logs_entity_ts", "entity_type, entity_id, timestamp, id"}
+        };
+        for (String[] index : indexes) {
+            String ddl = "CREATE INDEX " + index[0] + " ON audit_logs (" + index[1] + ")";
+            createIndex("MySQL", mysqlJdbc, ddl);
+            createIndex("Oracle", oracleJdbc, ddl);
+            createIndex("PostgreSQL", postgresqlJdbc, ddl.replace("CREATE INDEX ", "CREATE INDEX IF NOT EXISTS "));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        federatedPool.shutdownNow();
+    }
+
+    private void createIndex(String backend, JdbcTemplate jdbc, String ddl) {
+        try {
+            jdbc.execute(ddl);
+        } catch (Exception e) {
+            String message = String.valueOf(e.getMessage());
+            // MySQL "Duplicate key name", ORA-00955 name in use, ORA-01408 columns already indexed
+            if (!message.contains("Duplicate key name") && !message.contains("ORA-00955")
+                    && !message.contains("ORA-01408")) {
+                log.error("Failed to create audit index on {}: {}", backend, message);
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import springboot_login_page.login_page.DTO.AuditRollupBucket;
+import springboot_login_page.login_page.Entity.AuditLog;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hourly and daily audit event counts per action, entity type and user.
+ *
+ * AuditService bumps in-memory counters as it writes each record; a scheduled flush
+ * adds them to audit_rollups on every backend with one batched upsert, so the stats
+ * endpoint reads a handful of pre-aggregated rows instead of scanning audit_logs.
+ * Counting starts when this is deployed; earlier history is not backfilled.
+ */
+@Service
+public class AuditRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditRollupService.class);
+    private static final String ALL = "*";
+
+    public enum Granularity { HOUR, DAY }
+
+    public enum Dimension { ALL, ACTION, ENTITY_TYPE, USER }
+
+    private final List<Backend> backends;
+
+    @Value("${audit.rollup.max-pending-rows:100000}")
+    private int maxPendingRows;
+
+    private volatile ConcurrentHashMap<Key, LongAdder> current = new ConcurrentHashMap<>();
+    private final List<Generation> sealed = new CopyOnWriteArrayList<>();
+
+    public AuditRollupService(@Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbc,
+                              @Qualifier("oracleJdbcTemplate") JdbcTemplate oracleJdbc,
+                              @Qualifier("postgresqlJdbcTemplate") JdbcTemplate postgresqlJdbc,
+                              @Qualifier("mysqlTransactionManager") PlatformTransactionManager mysqlTx,
+                              @Qualifier("oracleTransactionManager") PlatformTransactionManager oracleTx,
+                              @Qualifier("postgresqlTransactionManager") PlatformTransactionManager postgresqlTx) {
+        this.backends = List.of(
+                new Backend("MySQL", mysqlJdbc, new TransactionTemplate(mysqlTx),
+                        List.of("CREATE TABLE IF NOT EXISTS audit_rollups (" +
+                                "granularity VARCHAR(5) NOT NULL, dimension VARCHAR(20) NOT NULL, " +
+                                "dim_value VARCHAR(100) NOT NULL, bucket_start DATETIME NOT NULL, events BIGINT NOT NULL, " +
+                                "PRIMARY KEY (granularity, dimension, bucket_start, dim_value))"),
+                        "INSERT INTO audit_rollups (granularity, dimension, dim_value, bucket_start, events) " +
+                                "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE events = events + VALUES(events)"),
+                new Backend("Oracle", oracleJdbc, new TransactionTemplate(oracleTx),
+                        List.of("CREATE TABLE audit_rollups (" +
+                                "granularity VARCHAR2(5) NOT NULL, dimension VARCHAR2(20) NOT NULL, " +
+                                "dim_value VARCHAR2(100) NOT NULL, bucket_start TIMESTAMP NOT NULL, events NUMBER(19) NOT NULL, " +
+                                "CONSTRAINT pk_audit_rollups PRIMARY KEY (granularity, dimension, bucket_start, dim_value))"),
+                        "MERGE INTO audit_rollups r " +
+                                "USING (SELECT ? AS granularity, ? AS dimension, ? AS dim_value, ? AS bucket_start, " +
+                                "? AS events FROM dual) d " +
+                                "ON (r.granularity = d.granularity AND r.dimension = d.dimension " +
+                                "AND r.bucket_start = d.bucket_start AND r.dim_value = d.dim_value) " +
+                                "WHEN MATCHED THEN UPDATE SET r.events = r.events + d.events " +
+                                "WHEN NOT MATCHED THEN INSERT (granularity, dimension, dim_value, bucket_start, events) " +
+                                "VALUES (d.granularity, d.dimension, d.dim_value, d.bucket_start, d.events)"),
+                new Backend("PostgreSQL", postgresqlJdbc, new TransactionTemplate(postgresqlTx),
+                        List.of("CREATE TABLE IF NOT EXISTS audit_rollups (" +
+                                "granularity VARCHAR(5) NOT NULL, dimension VARCHAR(20) NOT NULL, " +
+                                "dim_value VARCHAR(100) NOT NULL, bucket_start TIMESTAMP NOT NULL, events BIGINT NOT NULL, " +
+                                "PRIMARY KEY (granularity, dimension, bucket_start, dim_value))"),
+                        "INSERT INTO audit_rollups (granularity, dimension, dim_value, bucket_start, events) " +
+                                "VALUES (?, ?, ?, ?, ?) ON CONFLICT (granularity, dimension, bucket_start, dim_value) " +
+                                "DO UPDATE SET events = audit_rollups.events + EXCLUDED.events"));
+    }
+
+    private record Key(Granularity granularity, Dimension dimension, String value, LocalDateTime bucketStart) {
+    }
+
+    private record Row(Key key, long events) {
+    }
+
+    private static final class Generation {
+        final ConcurrentHashMap<Key, LongAdder> counters;
+        int drains; // flush thread only
+
+        Generation(ConcurrentHashMap<Key, LongAdder> counters) {
+            this.counters = counters;
+        }
+    }
+
+    private static final class Backend {
+        final String name;
+        final JdbcTemplate jdbc;
+        final TransactionTemplate tx;
+        final List<String> ddl;
+        final String upsertSql;
+        List<Row> pending = new ArrayList<>(); // rows a failed flush still owes this backend
+
+        Backend(String name, JdbcTemplate jdbc, TransactionTemplate tx, List<String> ddl, String upsertSql) {
+            this.name = name;
+            this.jdbc = jdbc;
+            this.tx = tx;
+            this.ddl = ddl;
+            this.upsertSql = upsertSql;
+        }
+    }
+
+    // Called once per written audit record: eight striped counter bumps, no locks, no I/O
+    public void record(AuditLog auditLog) {
+        LocalDateTime timestamp = auditLog.getTimestamp() != null ? auditLog.getTimestamp() : LocalDateTime.now();
+        LocalDateTime hour = timestamp.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime day = timestamp.truncatedTo(ChronoUnit.DAYS);
+        ConcurrentHashMap<Key, LongAdder> counters = current;
+        for (Granularity granularity : Granularity.values()) {
+            LocalDateTime bucket = granularity == Granularity.HOUR ? hour : day;
+            increment(counters, new Key(granularity, Dimension.ALL, ALL, bucket));
+            increment(counters, new Key(granularity, Dimension.ACTION, auditLog.getAction(), bucket));
+            increment(counters, new Key(granularity, Dimension.ENTITY_TYPE, auditLog.getEntityType(), bucket));
+            increment(counters, new Key(granularity, Dimension.USER, auditLog.getUserId(), bucket));
+        }
+    }
+
+    private static void increment(ConcurrentHashMap<Key, LongAdder> counters, Key key) {
+        if (key.value() == null) return;
+        LongAdder adder = counters.get(key);
+        if (adder == null) {
+            adder = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createTables() {
+        for (Backend backend : backends) {
+            for (String statement : backend.ddl) {
+                try {
+                    backend.jdbc.execute(statement);
+                } catch (Exception e) {
+                    // ORA-00955: the object already exists
+                    if (!String.valueOf(e.getMessage()).contains("ORA-00955")) {
+                        log.error("Failed to prepare audit_rollups on {}: {}", backend.name, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${audit.rollup.flush-interval-ms:60000}",
+            initialDelayString = "${audit.rollup.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        sealed.add(new Generation(current));
+        current = new ConcurrentHashMap<>();
+
+        List<Row> rows = new ArrayList<>();
+        for (Iterator<Generation> it = sealed.iterator(); it.hasNext(); ) {
+            Generation generation = it.next();
+            generation.counters.forEach((key, adder) -> {
+                long events = adder.sumThenReset();
+                if (events > 0) rows.add(new Row(key, events));
+            });
+            // A writer that read the map just before the swap may still bump it once more
+            if (++generation.drains >= 2) sealed.remove(generation);
+        }
+
+        for (Backend backend : backends) {
+            List<Row> batch = backend.pending;
+            batch.addAll(rows);
+            if (batch.isEmpty()) continue;
+            try {
+                backend.tx.executeWithoutResult(status -> backend.jdbc.batchUpdate(backend.upsertSql, batch, 500,
+                        (ps, row) -> {
+                            ps.setString(1, row.key().granularity().name());
+                            ps.setString(2, row.key().dimension().name());
+                            ps.setString(3, row.key().value());
+                            ps.setTimestamp(4, Timestamp.valueOf(row.key().bucketStart()));
+                            ps.setLong(5, row.events());
+                        }));
+                backend.pending = new ArrayList<>();
+                log.debug("Flushed {} audit rollup row(s) to {}", batch.size(), backend.name);
+            } catch (Exception e) {
+                if (batch.size() > maxPendingRows) {
+                    log.error("Dropping {} audit rollup row(s) owed to {} after repeated failures",
+                            batch.size() - maxPendingRows, backend.name);
+                    backend.pending = new ArrayList<>(batch.subList(batch.size() - maxPendingRows, batch.size()));
+                }
+                log.warn("Failed to flush audit rollups to {}, will retry: {}", backend.name, e.getMessage());
+            }
+        }
+    }
+
+    public static Granularity parseGranularity(String granularity) {
+        try {
+            return Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "granularity must be hour or day");
+        }
+    }
+
+    public static Dimension parseDimension(String dimension) {
+        // Accepts entityType, entity-type and entity_type alike
+        String normalized = dimension.replaceAll("[-_]", "").toUpperCase(Locale.ROOT);
+        for (Dimension candidate : Dimension.values()) {
+            if (candidate.name().replace("_", "").equals(normalized)) return candidate;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "dimension must be all, action, entityType or user");
+    }
+
+    /**
+     * Event counts per bucket in [from, to), busiest value first within each bucket.
+     * A value narrows the result to one action, entity type or user.
+     */
+    public List<AuditRollupBucket> getBuckets(Granularity granularity, Dimension dimension, String value,
+                                              LocalDateTime from, LocalDateTime to) {
+        String filter = value != null ? " AND dim_value = ?" : "";
+        List<Object> args = new ArrayList<>(List.of(granularity.name(), dimension.name(),
+                Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        if (value != null) {
+            args.add(dimension == Dimension.USER ? value : value.toUpperCase(Locale.ROOT));
+        }
+        String sql = "SELECT bucket_start, dim_value, events FROM audit_rollups " +
+                "WHERE granularity = ? AND dimension = ? AND bucket_start >= ? AND bucket_start < ?" + filter +
+                " ORDER BY bucket_start, events DESC, dim_value";
+
+        // Every backend holds the same counts; read from the first that answers
+        RuntimeException failure = null;
+        for (Backend backend : backends) {
+            try {
+                return backend.jdbc.query(sql,
+                        (rs, i) -> new AuditRollupBucket(rs.getTimestamp("bucket_start").toLocalDateTime(),
+                                rs.getString("dim_value"), rs.getLong("events")),
+                        args.toArray());
+            } catch (RuntimeException e) {
+                log.warn("{} unavailable for audit rollup query: {}", backend.name, e.getMessage());
+                failure = e;
+            }
+        }
+        throw new RuntimeException("Audit statistics are unavailable", failure);
+    }
+}
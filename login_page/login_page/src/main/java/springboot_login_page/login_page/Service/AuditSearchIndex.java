@@ -0,0 +1,530 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import springboot_login_page.login_page.DTO.AuditSearchResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Full-text index over the changes and details of audit records, keyed by MySQL audit id.
+ *
+ * New records go into an in-memory table of postings. A scheduled flush writes it out
+ * as an immutable segment file: terms in sorted order, each followed by its ids as
+ * delta-encoded varints. Only the term dictionary of a segment is kept in memory;
+ * postings are read from disk per query. Segments are merged into one once there are
+ * too many. On startup, anything MySQL holds beyond the newest indexed id is indexed,
+ * which also rebuilds the index from scratch when the directory is empty.
+ */
+@Service
+public class AuditSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditSearchIndex.class);
+    private static final int MAGIC = 0x41495831; // "AIX1"
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".idx";
+
+    private final JdbcTemplate catchUpJdbc;
+    private final Path directory;
+    private final int segmentDocs;
+    private final int maxSegments;
+
+    private final Object flushLock = new Object();
+    private MemTable memTable = new MemTable();             // guarded by this
+    private MemTable flushing;                              // guarded by this; being written out
+    private volatile List<Segment> segments = List.of();
+    private volatile boolean caughtUp;                      // until then, new records are read back from MySQL
+    private long nextGeneration = 1;                        // guarded by flushLock
+
+    public AuditSearchIndex(@Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbc,
+                            @Value("${audit.search.dir:data/audit-index}") String directory,
+                            @Value("${audit.search.segment-docs:50000}") int segmentDocs,
+                            @Value("${audit.search.max-segments:8}") int maxSegments) {
+        this.catchUpJdbc = new JdbcTemplate(mysqlJdbc.getDataSource());
+        this.catchUpJdbc.setFetchSize(Integer.MIN_VALUE); // stream rows instead of buffering the table
+        this.directory = Paths.get(directory);
+        this.segmentDocs = segmentDocs;
+        this.maxSegments = maxSegments;
+    }
+
+    private static final class Postings {
+        long[] ids = new long[2];
+        int size;
+
+        void add(long id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(ids, size);
+            Arrays.sort(copy);
+            return distinct(copy);
+        }
+    }
+
+    private static final class MemTable {
+        final Map<String, Postings> postings = new HashMap<>();
+        int docs;
+        long maxId;
+    }
+
+    record Segment(Path file, long generation, String[] terms, long[] offsets, int[] lengths, long maxId) {
+    }
+
+    @PostConstruct
+    public void open() {
+        try {
+            Files.createDirectories(directory);
+            List<Segment> loaded = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".tmp")) {
+                        Files.deleteIfExists(file); // left over from an interrupted flush
+                    } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                        loaded.add(readDictionary(file));
+                    }
+                }
+            }
+            loaded.sort(Comparator.comparingLong(Segment::generation));
+            segments = List.copyOf(loaded);
+            nextGeneration = loaded.isEmpty() ? 1 : loaded.get(loaded.size() - 1).generation() + 1;
+            log.info("Audit search index opened with {} segment(s) in {}", loaded.size(), directory.toAbsolutePath());
+        } catch (IOException e) {
+            log.error("Failed to open audit search index in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    // Called from the audit write path once MySQL has assigned the id; a record whose
+    // transaction rolls back never reaches the index
+    public void index(Long id, String changes, String details) {
+        if (id == null) return;
+        afterCommit(() -> {
+            if (caughtUp) add(id, changes, details);
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void add(long id, String changes, String details) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(changes, terms);
+        tokenize(details, terms);
+        synchronized (this) {
+            for (String term : terms) {
+                memTable.postings.computeIfAbsent(term, t -> new Postings()).add(id);
+            }
+            memTable.docs++;
+            memTable.maxId = Math.max(memTable.maxId, id);
+        }
+    }
+
+    /**
+     * Ids of records whose changes or details contain every term of the query, newest first.
+     */
+    public AuditSearchResult search(String query, int page, int size) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(query, terms);
+        if (terms.isEmpty()) {
+            return new AuditSearchResult(query, 0, page, size, List.of());
+        }
+
+        long[] matches = null;
+        for (String term : terms) {
+            long[] ids = lookup(term);
+            matches = matches == null ? ids : intersect(matches, ids);
+            if (matches.length == 0) break;
+        }
+
+        int total = matches.length;
+        int from = (int) Math.min((long) page * size, total);
+        int to = Math.min(from + size, total);
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(matches[total - 1 - i]);
+        }
+        return new AuditSearchResult(query, total, page, size, ids);
+    }
+
+    private long[] lookup(String term) {
+        try {
+            return lookupOnce(term);
+        } catch (UncheckedIOException e) {
+            // A merge replaced the segments after we listed them; the merged one has the postings
+            if (e.getCause() instanceof NoSuchFileException) return lookupOnce(term);
+            throw e;
+        }
+    }
+
+    private long[] lookupOnce(String term) {
+        List<long[]> parts = new ArrayList<>();
+        synchronized (this) {
+            Postings recent = memTable.postings.get(term);
+            if (recent != null) parts.add(recent.sorted());
+            if (flushing != null) {
+                Postings pending = flushing.postings.get(term);
+                if (pending != null) parts.add(pending.sorted());
+            }
+        }
+        for (Segment segment : segments) {
+            try (FileChannel channel = FileChannel.open(segment.file(), StandardOpenOption.READ)) {
+                long[] ids = readPostings(segment, channel, term);
+                if (ids.length > 0) parts.add(ids);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read audit index segment " + segment.file(), e);
+            }
+        }
+        return union(parts);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startCatchUp() {
+        long after = 0;
+        for (Segment segment : segments) after = Math.max(after, segment.maxId());
+        long from = after;
+        Thread thread = new Thread(() -> catchUp(from), "audit-index-catch-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Reads audit rows in id order until a pass finds nothing new, then lets the write
+     * path take over. One more pass picks up rows written while the switch happened, so
+     * segment max ids stay a safe resume point after a restart.
+     */
+    private void catchUp(long after) {
+        long[] last = {after};
+        long[] indexed = {0};
+        while (true) {
+            try {
+                long before;
+                do {
+                    before = indexed[0];
+                    catchUpJdbc.query("SELECT id, changes, details FROM audit_logs WHERE id > ? ORDER BY id", rs -> {
+                        last[0] = rs.getLong("id");
+                        add(last[0], rs.getString("changes"), rs.getString("details"));
+                        if (++indexed[0] % segmentDocs == 0) flush();
+                    }, last[0]);
+                } while (indexed[0] > before && !caughtUp);
+                if (caughtUp) break;
+                caughtUp = true;
+            } catch (Exception e) {
+                log.error("Audit search index catch-up failed after id {}, retrying in a minute: {}", last[0], e.getMessage());
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        flush();
+        log.info("Audit search index caught up with {} record(s) after id {}", indexed[0], after);
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${audit.search.flush-interval-ms:30000}",
+            initialDelayString = "${audit.search.flush-interval-ms:30000}")
+    public void flush() {
+        synchronized (flushLock) {
+            MemTable frozen;
+            synchronized (this) {
+                if (memTable.docs == 0) return;
+                frozen = memTable;
+                flushing = frozen;
+                memTable = new MemTable();
+            }
+            try {
+                String[] terms = frozen.postings.keySet().toArray(new String[0]);
+                Arrays.sort(terms);
+                Segment segment = writeSegment(terms, term -> frozen.postings.get(term).sorted(), frozen.maxId);
+                List<Segment> updated = new ArrayList<>(segments);
+                updated.add(segment);
+                segments = List.copyOf(updated);
+            } catch (IOException e) {
+                // Put the postings back so the next flush retries them
+                log.error("Failed to write audit index segment: {}", e.getMessage());
+                synchronized (this) {
+                    frozen.postings.forEach((term, ids) -> {
+                        Postings target = memTable.postings.computeIfAbsent(term, t -> new Postings());
+                        for (int i = 0; i < ids.size; i++) target.add(ids.ids[i]);
+                    });
+                    memTable.docs += frozen.docs;
+                    memTable.maxId = Math.max(memTable.maxId, frozen.maxId);
+                }
+            } finally {
+                synchronized (this) {
+                    flushing = null;
+                }
+            }
+            if (segments.size() > maxSegments) {
+                merge();
+            }
+        }
+    }
+
+    // Rewrites every segment as one; the caller holds flushLock
+    private void merge() {
+        List<Segment> inputs = segments;
+        List<FileChannel> channels = new ArrayList<>();
+        try {
+            TreeSet<String> allTerms = new TreeSet<>();
+            long maxId = 0;
+            for (Segment segment : inputs) {
+                allTerms.addAll(Arrays.asList(segment.terms()));
+                maxId = Math.max(maxId, segment.maxId());
+                channels.add(FileChannel.open(segment.file(), StandardOpenOption.READ));
+            }
+            // Postings are unioned one term at a time as the merged segment is written
+            Segment merged = writeSegment(allTerms.toArray(new String[0]), term -> {
+                List<long[]> parts = new ArrayList<>();
+                for (int i = 0; i < inputs.size(); i++) {
+                    long[] ids = readPostings(inputs.get(i), channels.get(i), term);
+                    if (ids.length > 0) parts.add(ids);
+                }
+                return union(parts);
+            }, maxId);
+            closeAll(channels);
+            segments = List.of(merged);
+            for (Segment segment : inputs) {
+                Files.deleteIfExists(segment.file());
+            }
+            log.info("Merged {} audit index segment(s) into {}", inputs.size(), merged.file().getFileName());
+        } catch (IOException e) {
+            log.error("Failed to merge audit index segments: {}", e.getMessage());
+        } finally {
+            closeAll(channels);
+        }
+    }
+
+    private static void closeAll(List<FileChannel> channels) {
+        for (FileChannel channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // read-only; nothing to lose
+            }
+        }
+        channels.clear();
+    }
+
+    private interface PostingsSource {
+        long[] read(String term) throws IOException;
+    }
+
+    // Terms must be sorted
+    private Segment writeSegment(String[] terms, PostingsSource postings, long maxId) throws IOException {
+        long generation = nextGeneration++;
+        Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, generation, SEGMENT_SUFFIX));
+        Path tmp = directory.resolve(file.getFileName() + ".tmp");
+
+        long[] offsets = new long[terms.length];
+        int[] lengths = new int[terms.length];
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeLong(maxId);
+            out.writeInt(terms.length);
+            long position = 4 + 8 + 4;
+            for (int i = 0; i < terms.length; i++) {
+                byte[] term = terms[i].getBytes(StandardCharsets.UTF_8);
+                byte[] encoded = encode(postings.read(terms[i]));
+                out.writeShort(term.length);
+                out.write(term);
+                out.writeInt(encoded.length);
+                position += 2 + term.length + 4;
+                offsets[i] = position;
+                lengths[i] = encoded.length;
+                out.write(encoded);
+                position += encoded.length;
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        return new Segment(file, generation, terms, offsets, lengths, maxId);
+    }
+
+    static Segment readDictionary(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        long generation = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an audit index segment: " + file);
+            }
+            long maxId = in.readLong();
+            int termCount = in.readInt();
+            String[] terms = new String[termCount];
+            long[] offsets = new long[termCount];
+            int[] lengths = new int[termCount];
+            long position = 4 + 8 + 4;
+            for (int i = 0; i < termCount; i++) {
+                byte[] term = new byte[in.readUnsignedShort()];
+                in.readFully(term);
+                terms[i] = new String(term, StandardCharsets.UTF_8);
+                lengths[i] = in.readInt();
+                position += 2 + term.length + 4;
+                offsets[i] = position;
+                position += lengths[i];
+                in.skipNBytes(lengths[i]);
+            }
+            return new Segment(file, generation, terms, offsets, lengths, maxId);
+        }
+    }
+
+    static long[] readPostings(Segment segment, FileChannel channel, String term) throws IOException {
+        int at = Arrays.binarySearch(segment.terms(), term);
+        if (at < 0) return new long[0];
+        ByteBuffer buffer = ByteBuffer.allocate(segment.lengths()[at]);
+        long position = segment.offsets()[at];
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) throw new EOFException();
+        }
+        return decode(buffer.array());
+    }
+
+    // Count, then gaps between ascending ids, all as unsigned varints
+    static byte[] encode(long[] ids) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ids.length * 2 + 5);
+        writeVarint(out, ids.length);
+        long previous = 0;
+        for (long id : ids) {
+            writeVarint(out, id - previous);
+            previous = id;
+        }
+        return out.toByteArray();
+    }
+
+    static long[] decode(byte[] bytes) {
+        int[] at = {0};
+        long[] ids = new long[(int) readVarint(bytes, at)];
+        long previous = 0;
+        for (int i = 0; i < ids.length; i++) {
+            previous += readVarint(bytes, at);
+            ids[i] = previous;
+        }
+        return ids;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] bytes, int[] at) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[at[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    // Lower-cased runs of letters, digits, '*' and '#', so USSD codes like *123# stay whole
+    static void tokenize(String text, Set<String> terms) {
+        if (text == null) return;
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c) || c == '*' || c == '#') {
+                if (term.length() < MAX_TERM_LENGTH) term.append(c);
+            } else if (!term.isEmpty()) {
+                terms.add(term.toString().toLowerCase(Locale.ROOT));
+                term.setLength(0);
+            }
+        }
+    }
+
+    static long[] union(List<long[]> parts) {
+        if (parts.isEmpty()) return new long[0];
+        if (parts.size() == 1) return parts.get(0);
+        int total = 0;
+        for (long[] part : parts) total += part.length;
+        long[] all = new long[total];
+        int n = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, all, n, part.length);
+            n += part.length;
+        }
+        Arrays.sort(all);
+        return distinct(all);
+    }
+
+    private static long[] distinct(long[] sorted) {
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) sorted[n++] = sorted[i];
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+
+    static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+}
@@ -6,19 +6,26 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+import springboot_login_page.login_page.DTO.AuditLogSummary;
 import springboot_login_page.login_page.Entity.AuditLog;
 import springboot_login_page.login_page.Repository.mysql.MySQLAuditLogRepository;
 import springboot_login_page.login_page.Repository.oracle.OracleAuditLogRepository;
 import springboot_login_page.login_page.Repository.postgresql.PostgreSQLAuditLogRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
@@ -31,6 +38,10 @@ public class AuditService {
     private final MySQLAuditLogRepository mysqlAuditRepo;
     private final OracleAuditLogRepository oracleAuditRepo;
     private final PostgreSQLAuditLogRepository postgresqlAuditRepo;
+    private final AuditQueryService auditQueryService;
+    private final AuditRollupService auditRollupService;
+    private final AuditSearchIndex auditSearchIndex;
+    private final AuditArchiveService auditArchiveService;
 
     @Transactional
     public void logCreate(String entityType, String entityId, Object entity, String username) {
@@ -51,6 +62,13 @@ public class AuditService {
         saveToAllDatabases(auditLog, "DELETE");
     }
 
+    // One entry summarizing a bulk operation instead of one per affected row
+    @Transactional
+    public void logBatch(String action, String entityType, String entityId, Map<String, Object> summary, String username) {
+        AuditLog auditLog = createAuditLog(action, entityType, entityId, null, summary, username);
+        saveToAllDatabases(auditLog, action);
+    }
+
     private AuditLog createAuditLog(String action, String entityType, String entityId,
                                     Object entity, Map<String, Object> changes, String username) {
         AuditLog auditLog = new AuditLog();
@@ -167,6 +185,22 @@ public class AuditService {
         } else {
             log.info("Audit log saved to {} database(s) - Action: {} by: {}",
                     successCount.get(), action, auditLog.getUserId());
+            // Counted once the caller's transaction commits, so a rolled-back change is never counted
+            afterCommit(() -> auditRollupService.record(auditLog));
+            auditSearchIndex.index(auditLog.getId(), auditLog.getChanges(), auditLog.getDetails());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
     }
 
@@ -184,101 +218,59 @@ public class AuditService {
         return copy;
     }
 
-    public List<AuditLog> getAllAuditLogs() {
-        try {
-            List<AuditLog> logs = mysqlAuditRepo.findAllByOrderByTimestampDesc();
-            log.info("Retrieved {} audit logs from MySQL", logs.size());
-            return logs;
-        } catch (Exception e) {
-            log.warn("MySQL audit unavailable, trying Oracle: {}", e.getMessage());
-            try {
-                List<AuditLog> logs = oracleAuditRepo.findAllByOrderByTimestampDesc();
-                log.info("Retrieved {} audit logs from Oracle", logs.size());
-                return logs;
-            } catch (Exception ex) {
-                log.warn("Oracle audit unavailable, trying PostgreSQL: {}", ex.getMessage());
-                List<AuditLog> logs = postgresqlAuditRepo.findAllByOrderByTimestampDesc();
-                log.info("Retrieved {} audit logs from PostgreSQL", logs.size());
-                return logs;
-            }
-        }
+    public List<AuditLogSummary> getAllAuditLogs() {
+        List<AuditLogSummary> logs = list(new AuditQueryService.Filter(null, null, null, null, null, null));
+        log.info("Retrieved {} audit logs", logs.size());
+        return logs;
     }
 
-    public List<AuditLog> getAuditLogsByEntityType(String entityType) {
-        String type = entityType.toUpperCase();
-        try {
-            return mysqlAuditRepo.findByEntityTypeOrderByTimestampDesc(type);
-        } catch (Exception e) {
-            log.warn("MySQL audit unavailable, trying Oracle: {}", e.getMessage());
-            try {
-                return oracleAuditRepo.findByEntityTypeOrderByTimestampDesc(type);
-            } catch (Exception ex) {
-                return postgresqlAuditRepo.findByEntityTypeOrderByTimestampDesc(type);
-            }
-        }
+    public List<AuditLogSummary> getAuditLogsByEntityType(String entityType) {
+        return list(new AuditQueryService.Filter(null, null, entityType, null, null, null));
     }
 
-    public List<AuditLog> getAuditLogsByAction(String action) {
-        String act = action.toUpperCase();
-        try {
-            return mysqlAuditRepo.findByActionOrderByTimestampDesc(act);
-        } catch (Exception e) {
-            log.warn("MySQL audit unavailable, trying Oracle: {}", e.getMessage());
-            try {
-                return oracleAuditRepo.findByActionOrderByTimestampDesc(act);
-            } catch (Exception ex) {
-                return postgresqlAuditRepo.findByActionOrderByTimestampDesc(act);
-            }
-        }
+    public List<AuditLogSummary> getAuditLogsByAction(String action) {
+        return list(new AuditQueryService.Filter(null, action, null, null, null, null));
     }
 
-    public List<AuditLog> getAuditLogsByUser(String userId) {
-        try {
-            return mysqlAuditRepo.findByUserIdOrderByTimestampDesc(userId);
-        } catch (Exception e) {
-            log.warn("MySQL audit unavailable, trying Oracle: {}", e.getMessage());
-            try {
-                return oracleAuditRepo.findByUserIdOrderByTimestampDesc(userId);
-            } catch (Exception ex) {
-                return postgresqlAuditRepo.findByUserIdOrderByTimestampDesc(userId);
-            }
-        }
+    public List<AuditLogSummary> getAuditLogsByUser(String userId) {
+        return list(new AuditQueryService.Filter(userId, null, null, null, null, null));
     }
 
-    public List<AuditLog> getAuditLogsForEntity(String entityType, String entityId) {
-        String type = entityType.toUpperCase();
-        try {
-            return mysqlAuditRepo.findByEntityIdOrderByTimestampDesc(entityId)
-                    .stream()
-                    .filter(log -> log.getEntityType().equalsIgnoreCase(type))
-                    .toList();
-        } catch (Exception e) {
-            log.warn("MySQL audit unavailable, trying Oracle: {}", e.getMessage());
-            try {
-                return oracleAuditRepo.findByEntityIdOrderByTimestampDesc(entityId)
-                        .stream()
-                        .filter(log -> log.getEntityType().equalsIgnoreCase(type))
-                        .toList();
-            } catch (Exception ex) {
-                return postgresqlAuditRepo.findByEntityIdOrderByTimestampDesc(entityId)
-                        .stream()
-                        .filter(log -> log.getEntityType().equalsIgnoreCase(type))
-                        .toList();
-            }
+    public List<AuditLogSummary> getAuditLogsForEntity(String entityType, String entityId) {
+        return list(new AuditQueryService.Filter(null, null, entityType, entityId, null, null));
+    }
+
+    public List<AuditLogSummary> getAuditLogsByDateRange(LocalDateTime start, LocalDateTime end) {
+        return list(new AuditQueryService.Filter(null, null, null, null, start, end));
+    }
+
+    // The newest MAX_LIMIT matches; /query pages through the rest. Archived rows are always older
+    // than the live ones, so appending keeps newest-first order. The archive is only read for an
+    // explicit time range, where segment pruning keeps it from decompressing every segment.
+    private List<AuditLogSummary> list(AuditQueryService.Filter filter) {
+        int limit = AuditQueryService.MAX_LIMIT;
+        List<AuditLogSummary> logs = new ArrayList<>(auditQueryService.list(filter, limit));
+        if (logs.size() < limit && filter.from() != null && filter.to() != null) {
+            logs.addAll(auditArchiveService.scan(filter, limit - logs.size()));
         }
+        return logs;
     }
 
-    public List<AuditLog> getAuditLogsByDateRange(LocalDateTime start, LocalDateTime end) {
+    // Full record including changes and details, for the detail view
+    public AuditLog getAuditLog(Long id) {
+        Optional<AuditLog> found;
         try {
-            return mysqlAuditRepo.findByDateRange(start, end);
+            found = mysqlAuditRepo.findById(id);
         } catch (Exception e) {
             log.warn("MySQL audit unavailable, trying Oracle: {}", e.getMessage());
             try {
-                return oracleAuditRepo.findByDateRange(start, end);
+                found = oracleAuditRepo.findById(id);
             } catch (Exception ex) {
-                return postgresqlAuditRepo.findByDateRange(start, end);
+                found = postgresqlAuditRepo.findById(id);
             }
         }
+        return found.or(() -> auditArchiveService.findById(id))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Audit log not found"));
     }
 
     private Map<String, Object> getChanges(Object before, Object after) {
@@ -23,10 +23,18 @@ public class AuditSyncService {
     private final MySQLAuditLogRepository mysqlAuditRepo;
     private final OracleAuditLogRepository oracleAuditRepo;
     private final PostgreSQLAuditLogRepository postgresqlAuditRepo;
+    private final AuditArchiveService auditArchiveService;
 
     @Scheduled(fixedDelay = 3600000) // Run every hour
     @Transactional
     public void syncAuditLogs() {
+        // Copying by id while an archive run deletes a window would bring its rows back
+        if (!auditArchiveService.runExclusive(this::copyMissingLogs)) {
+            log.info("Skipping audit logs synchronization; an archive run holds the audit lock");
+        }
+    }
+
+    private void copyMissingLogs() {
         log.info("Starting audit logs synchronization across all databases");
 
         try {
@@ -1,19 +1,31 @@
 // File: AuthService.java
 package springboot_login_page.login_page.Service;
 
+import io.jsonwebtoken.Claims;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import springboot_login_page.login_page.DTO.AdminRegisterRequest;
+import springboot_login_page.login_page.DTO.AuthResponse;
+import springboot_login_page.login_page.DTO.UserSummary;
 import springboot_login_page.login_page.Entity.User;
 import springboot_login_page.login_page.Repository.mysql.MySQLUserRepository;
 import springboot_login_page.login_page.Repository.oracle.OracleUserRepository;
 import springboot_login_page.login_page.Repository.postgresql.PostgreSQLUserRepository;
+import springboot_login_page.login_page.security.MyUserDetailsService;
 
-import java.util.List;
+import springboot_login_page.login_page.util.LatencyStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class AuthService {
@@ -21,22 +33,35 @@ public class AuthService {
     private final MySQLUserRepository mysqlRepo;
     private final OracleUserRepository oracleRepo;
     private final PostgreSQLUserRepository postgresqlRepo;
-    private final PasswordEncoder encoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
     private final AuditService auditService;
+    private final MyUserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+
+    private final LatencyStats loginLatency = new LatencyStats();
+    private final LongAdder loginFailures = new LongAdder();
+    private final LongAdder userLookups = new LongAdder();
 
     public AuthService(MySQLUserRepository mysqlRepo,
                        OracleUserRepository oracleRepo,
                        PostgreSQLUserRepository postgresqlRepo,
-                       PasswordEncoder encoder,
+                       PasswordHashingService passwordHashingService,
                        JwtService jwtService,
-                       AuditService auditService) {
+                       AuditService auditService,
+                       MyUserDetailsService userDetailsService,
+                       RefreshTokenService refreshTokenService,
+                       TokenRevocationService tokenRevocationService) {
         this.mysqlRepo = mysqlRepo;
         this.oracleRepo = oracleRepo;
         this.postgresqlRepo = postgresqlRepo;
-        this.encoder = encoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtService = jwtService;
         this.auditService = auditService;
+        this.userDetailsService = userDetailsService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     // REMOVED: public register() method - only admin can register users now
@@ -62,24 +87,27 @@ public class AuthService {
             throw new RuntimeException("Password must be at least 6 characters long");
         }
 
+        // Hash once on the bounded hashing pool and reuse it for every database
+        String encodedPassword = passwordHashingService.encode(request.getPassword());
+
         // Create user for MySQL
         User mysqlUser = new User();
         mysqlUser.setUsername(request.getUsername());
-        mysqlUser.setPassword(encoder.encode(request.getPassword()));
+        mysqlUser.setPassword(encodedPassword);
         mysqlUser.setRole(request.getRole() != null ? request.getRole() : User.Role.USER);
         mysqlRepo.save(mysqlUser);
 
         // Create user for Oracle
         User oracleUser = new User();
         oracleUser.setUsername(request.getUsername());
-        oracleUser.setPassword(encoder.encode(request.getPassword()));
+        oracleUser.setPassword(encodedPassword);
         oracleUser.setRole(request.getRole() != null ? request.getRole() : User.Role.USER);
         oracleRepo.save(oracleUser);
 
         // Create user for PostgreSQL
         User postgresqlUser = new User();
         postgresqlUser.setUsername(request.getUsername());
-        postgresqlUser.setPassword(encoder.encode(request.getPassword()));
+        postgresqlUser.setPassword(encodedPassword);
         postgresqlUser.setRole(request.getRole() != null ? request.getRole() : User.Role.USER);
         postgresqlRepo.save(postgresqlUser);
 
@@ -93,21 +121,78 @@ public class AuthService {
         }
     }
 
-    public String login(String username, String password) {
-        // Try MySQL first, fall back to Oracle or PostgreSQL if needed
-        User user = mysqlRepo.findByUsername(username)
-                .orElseGet(() -> oracleRepo.findByUsername(username)
-                        .orElseGet(() -> postgresqlRepo.findByUsername(username)
-                                .orElseThrow(() -> new RuntimeException("User not found"))));
+    public AuthResponse login(String username, String password) {
+        long startedAt = System.nanoTime();
+        boolean success = false;
+        try {
+            // Try MySQL first, fall back to Oracle or PostgreSQL if needed
+            User user = findForLogin(username);
+
+            if (!passwordHashingService.matches(password, user.getPassword())) {
+                throw new RuntimeException("Invalid credentials");
+            }
+
+            // The row loaded for authentication carries the role, so the token is built from it directly
+            AuthResponse response = issueTokens(user);
+            success = true;
+            return response;
+        } finally {
+            loginLatency.record(System.nanoTime() - startedAt);
+            if (!success) loginFailures.increment();
+        }
+    }
+
+    // Exchanges a refresh token for a new token pair without re-checking the password.
+    // The role is read from the (invalidated-on-change) user cache, so role updates apply on the next refresh.
+    public AuthResponse refresh(String refreshToken) {
+        String username = refreshTokenService.consume(refreshToken);
+        User user = userDetailsService.loadUser(username);
+        return issueTokens(user);
+    }
 
-        if (!encoder.matches(password, user.getPassword())) {
-            throw new RuntimeException("Invalid credentials");
+    public void logout(String refreshToken, String accessToken) {
+        refreshTokenService.revoke(refreshToken);
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtService.extractAllClaims(accessToken);
+                tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration());
+            } catch (Exception e) {
+                log.debug("Ignoring invalid access token on logout: {}", e.getMessage());
+            }
         }
+    }
 
-        return jwtService.generateToken(username);
+    private AuthResponse issueTokens(User user) {
+        String accessToken = jwtService.generateToken(user);
+        String refreshToken = refreshTokenService.issue(user.getUsername());
+        return new AuthResponse(accessToken, refreshToken, jwtService.getExpiration() / 1000);
     }
 
-    public List<User> getAllUsers() {
+    private User findForLogin(String username) {
+        userLookups.increment();
+        return mysqlRepo.findByUsername(username)
+                .orElseGet(() -> {
+                    userLookups.increment();
+                    return oracleRepo.findByUsername(username)
+                            .orElseGet(() -> {
+                                userLookups.increment();
+                                return postgresqlRepo.findByUsername(username)
+                                        .orElseThrow(() -> new RuntimeException("User not found"));
+                            });
+                });
+    }
+
+    public Map<String, Object> getLoginMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        long logins = loginLatency.getCount();
+        metrics.put("latency", loginLatency.snapshot());
+        metrics.put("failures", loginFailures.sum());
+        metrics.put("userLookups", userLookups.sum());
+        metrics.put("userLookupsPerLogin", logins == 0 ? 0.0 : userLookups.sum() / (double) logins);
+        return metrics;
+    }
+
+    public Page<UserSummary> getAllUsers(int page, int size) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
 
         boolean isAdmin = auth.getAuthorities().stream()
@@ -118,7 +203,8 @@ public class AuthService {
             throw new RuntimeException("Only admins can view all users");
         }
 
-        return mysqlRepo.findAll();
+        PageRequest pageRequest = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, 500)), Sort.by("id"));
+        return mysqlRepo.findAllSummaries(pageRequest);
     }
 
     @Transactional
@@ -160,6 +246,14 @@ public class AuthService {
                     postgresqlRepo.save(postgresqlUser);
                 });
 
+        // After commit, so a concurrent load cannot cache the old role again for a whole TTL.
+        // Outstanding access tokens carry the old role; the client picks up the new one on refresh
+        String username = mysqlUser.getUsername();
+        afterCommit(() -> {
+            userDetailsService.evict(username);
+            tokenRevocationService.revokeUser(username);
+        });
+
         // AUDIT LOGGING: Log role update
         try {
             auditService.logUpdate("USER", userId.toString(), beforeUpdate, mysqlUser, adminUsername);
@@ -203,6 +297,13 @@ public class AuthService {
         postgresqlRepo.findByUsername(mysqlUser.getUsername())
                 .ifPresent(postgresqlRepo::delete);
 
+        refreshTokenService.revokeAll(mysqlUser.getUsername());
+        String username = mysqlUser.getUsername();
+        afterCommit(() -> {
+            userDetailsService.evict(username);
+            tokenRevocationService.revokeUser(username);
+        });
+
         // AUDIT LOGGING: Log user deletion
         try {
             auditService.logDelete("USER", userId.toString(), userToDelete, adminUsername);
@@ -212,6 +313,19 @@ public class AuthService {
         }
     }
 
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     // Helper method to get current username
     private String getCurrentUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
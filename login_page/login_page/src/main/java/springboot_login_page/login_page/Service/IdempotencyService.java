@@ -0,0 +1,244 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import springboot_login_page.login_page.Entity.IdempotencyRecord;
+import springboot_login_page.login_page.Repository.mysql.MySQLIdempotencyRecordRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the response to each Idempotency-Key so a retried mutation is answered
+ * without running again. Completed responses sit in a bounded in-memory LRU; the
+ * idempotency_keys table makes the claim visible to every node and survives restarts.
+ * A claim is a lease held under a random owner token. While the request runs, a heartbeat
+ * renews it every quarter lease, so however long the request takes it stays claimed; only
+ * an owner that stopped renewing (a node that crashed mid-request) loses it to the next
+ * retry after lease-ms. Completing or releasing a claim requires the token, so an owner
+ * that did lose its lease cannot overwrite or delete the new owner's claim.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final MySQLIdempotencyRecordRepository recordRepo;
+    private final int cacheSize;
+    private final long ttlMillis;
+    private final long leaseMillis;
+
+    private final Map<String, CachedResponse> cache;              // guarded by itself
+    private final Map<String, String> inFlight = new ConcurrentHashMap<>(); // key hash -> owner token
+    private ScheduledExecutorService heartbeat;
+
+    public IdempotencyService(MySQLIdempotencyRecordRepository recordRepo,
+                              @Value("${idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${idempotency.ttl-ms:86400000}") long ttlMillis,
+                              @Value("${idempotency.lease-ms:60000}") long leaseMillis) {
+        this.recordRepo = recordRepo;
+        this.cacheSize = cacheSize;
+        this.ttlMillis = ttlMillis;
+        this.leaseMillis = leaseMillis;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > IdempotencyService.this.cacheSize;
+            }
+        };
+    }
+
+    // A thread of its own: a long job on the shared scheduler must not let our leases lapse
+    @PostConstruct
+    public void startHeartbeat() {
+        long period = Math.max(1000L, leaseMillis / 4);
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::renewLeases, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopHeartbeat() {
+        if (heartbeat != null) heartbeat.shutdownNow();
+    }
+
+    public enum Outcome { PROCEED, REPLAY, IN_PROGRESS, MISMATCH }
+
+    public record StoredResponse(String requestHash, int statusCode, String contentType, String body) {
+    }
+
+    public record Claim(Outcome outcome, StoredResponse response) {
+    }
+
+    private record CachedResponse(StoredResponse response, long expiresAtMillis) {
+    }
+
+    /**
+     * PROCEED means the caller now owns the key and must call complete or abandon.
+     */
+    public Claim claim(String keyHash, String requestHash) {
+        StoredResponse cached = fromCache(keyHash);
+        if (cached != null) {
+            return verdict(cached, requestHash);
+        }
+        String token = UUID.randomUUID().toString();
+        if (inFlight.putIfAbsent(keyHash, token) != null) {
+            return new Claim(Outcome.IN_PROGRESS, null);
+        }
+
+        try {
+            // The unique key_hash makes the first request on any node the owner
+            IdempotencyRecord placeholder = new IdempotencyRecord();
+            placeholder.setKeyHash(keyHash);
+            placeholder.setRequestHash(requestHash);
+            placeholder.setOwnerToken(token);
+            placeholder.setStatusCode(0);
+            placeholder.setCreatedAt(LocalDateTime.now());
+            placeholder.setExpiresAt(LocalDateTime.now().plusNanos(ttlMillis * 1_000_000L));
+            recordRepo.save(placeholder);
+            return new Claim(Outcome.PROCEED, null);
+        } catch (DataIntegrityViolationException e) {
+            Claim claim = recordRepo.findByKeyHash(keyHash)
+                    .map(record -> {
+                        StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getStatusCode(),
+                                record.getContentType(), record.getResponseBody());
+                        if (stored.statusCode() != 0) remember(keyHash, stored);
+                        Claim verdict = verdict(stored, requestHash);
+                        if (verdict.outcome() == Outcome.IN_PROGRESS && takeOverIfStale(keyHash, token)) {
+                            return new Claim(Outcome.PROCEED, null);
+                        }
+                        return verdict;
+                    })
+                    .orElse(new Claim(Outcome.IN_PROGRESS, null)); // abandoned meanwhile; the client retries
+            if (claim.outcome() != Outcome.PROCEED) inFlight.remove(keyHash, token);
+            return claim;
+        } catch (Exception e) {
+            log.warn("Idempotency store unavailable, deduplicating on this node only: {}", e.getMessage());
+            return new Claim(Outcome.PROCEED, null);
+        }
+    }
+
+    private boolean takeOverIfStale(String keyHash, String token) {
+        LocalDateTime now = LocalDateTime.now();
+        if (recordRepo.takeOver(keyHash, token, now, now.minusNanos(leaseMillis * 1_000_000L)) == 0) {
+            return false;
+        }
+        log.warn("Took over idempotency key whose owner stopped renewing it {} ms ago", leaseMillis);
+        return true;
+    }
+
+    public void complete(String keyHash, String requestHash, int statusCode, String contentType, String body) {
+        String token = inFlight.get(keyHash);
+        StoredResponse response = new StoredResponse(requestHash, statusCode, contentType, body);
+        try {
+            if (token != null && recordRepo.complete(keyHash, token, statusCode, contentType, body) == 0) {
+                // The lease lapsed and another request owns the key now; its response is the one to keep
+                log.warn("Idempotency key was taken over before its response was stored");
+                return;
+            }
+            remember(keyHash, response);
+        } catch (Exception e) {
+            log.warn("Failed to persist idempotent response: {}", e.getMessage());
+            remember(keyHash, response);
+        } finally {
+            inFlight.remove(keyHash, token);
+        }
+    }
+
+    // Failed requests are not remembered, so the client can retry with the same key
+    public void abandon(String keyHash) {
+        String token = inFlight.get(keyHash);
+        try {
+            if (token != null) recordRepo.deleteByKeyHash(keyHash, token);
+        } catch (Exception e) {
+            log.warn("Failed to release idempotency key: {}", e.getMessage());
+        } finally {
+            inFlight.remove(keyHash, token);
+        }
+    }
+
+    void renewLeases() {
+        if (inFlight.isEmpty()) return;
+        try {
+            recordRepo.renew(List.copyOf(inFlight.values()), LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Failed to renew idempotency leases: {}", e.getMessage());
+        }
+    }
+
+    private Claim verdict(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return new Claim(Outcome.MISMATCH, null);
+        }
+        if (stored.statusCode() == 0) {
+            return new Claim(Outcome.IN_PROGRESS, null);
+        }
+        return new Claim(Outcome.REPLAY, stored);
+    }
+
+    private StoredResponse fromCache(String keyHash) {
+        synchronized (cache) {
+            CachedResponse entry = cache.get(keyHash);
+            if (entry == null) return null;
+            if (entry.expiresAtMillis() < System.currentTimeMillis()) {
+                cache.remove(keyHash);
+                return null;
+            }
+            return entry.response();
+        }
+    }
+
+    private void remember(String keyHash, StoredResponse response) {
+        synchronized (cache) {
+            cache.put(keyHash, new CachedResponse(response, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    @Scheduled(fixedDelay = 3600000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            cache.values().removeIf(entry -> entry.expiresAtMillis() < now);
+        }
+        try {
+            int removed = recordRepo.deleteExpired(LocalDateTime.now());
+            if (removed > 0) {
+                log.info("Purged {} expired idempotency key(s)", removed);
+            }
+        } catch (Exception e) {
+            log.error("Failed to purge expired idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    public static String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256(byte[] value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import springboot_login_page.login_page.Entity.JwtSigningKey;
+import springboot_login_page.login_page.Repository.mysql.MySQLJwtSigningKeyRepository;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ES256 signing keys tagged with a kid. The newest key signs; older keys stay
+ * verifiable until every token they signed has expired. Keys live in MySQL so
+ * every node signs and verifies with the same set, and the public half is
+ * published as a JWKS document for offline verification by other services.
+ * Private keys are sealed with AES-GCM before they reach the table, under a key
+ * encryption key taken from configuration (or derived from jwt.secret), so read
+ * access to jwt_signing_keys alone is not enough to mint tokens.
+ */
+@Service
+public class JwtKeyService {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyService.class);
+    private static final String ALGORITHM = "ES256";
+    private static final String SEALED_PREFIX = "v1:";
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final MySQLJwtSigningKeyRepository keyRepo;
+    private final SecretKey keyEncryptionKey;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${jwt.expiration}")
+    private long tokenExpiration;
+
+    @Value("${jwt.key-rotation-interval-ms:604800000}")
+    private long rotationInterval;
+
+    private volatile SigningKey signingKey;
+    private volatile Map<String, PublicKey> verificationKeys = Map.of();
+    private volatile Map<String, Object> jwks = Map.of("keys", List.of());
+    private volatile long lastReloadMillis;
+
+    public JwtKeyService(MySQLJwtSigningKeyRepository keyRepo,
+                         @Value("${jwt.key-encryption-key:}") String keyEncryptionKey,
+                         @Value("${jwt.secret}") String jwtSecret) {
+        this.keyRepo = keyRepo;
+        this.keyEncryptionKey = keyEncryptionKey(keyEncryptionKey, jwtSecret);
+    }
+
+    // A base64 AES-256 key when configured, otherwise a SHA-256 derivation of jwt.secret
+    private static SecretKey keyEncryptionKey(String configured, String jwtSecret) {
+        try {
+            byte[] key = configured != null && !configured.isBlank()
+                    ? Base64.getDecoder().decode(configured.trim())
+                    : MessageDigest.getInstance("SHA-256")
+                            .digest(("jwt-signing-key-encryption:" + jwtSecret).getBytes(StandardCharsets.UTF_8));
+            if (key.length != 32) {
+                throw new IllegalStateException("jwt.key-encryption-key must be 32 bytes, base64 encoded");
+            }
+            return new SecretKeySpec(key, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to derive JWT key encryption key", e);
+        }
+    }
+
+    public record SigningKey(String kid, PrivateKey privateKey, PublicKey publicKey, LocalDateTime createdAt) {
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+            rotateIfDue();
+        } catch (Exception e) {
+            // Tokens signed with an unpersisted key only verify on this node
+            log.error("Could not load JWT signing keys, using an ephemeral key: {}", e.getMessage());
+            install(List.of(toSigningKey(generate())));
+        }
+    }
+
+    public SigningKey getSigningKey() {
+        return signingKey;
+    }
+
+    public PublicKey getVerificationKey(String kid) {
+        PublicKey key = verificationKeys.get(kid);
+        // A key just rotated in by another node; reload at most once every few seconds
+        if (key == null && System.currentTimeMillis() - lastReloadMillis > 5000) {
+            try {
+                reload();
+            } catch (Exception e) {
+                log.warn("Failed to reload JWT keys for unknown kid {}: {}", kid, e.getMessage());
+            }
+            key = verificationKeys.get(kid);
+        }
+        return key;
+    }
+
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    @Scheduled(fixedDelay = 300000, initialDelay = 300000)
+    public void refresh() {
+        try {
+            reload();
+            rotateIfDue();
+        } catch (Exception e) {
+            log.error("JWT key refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void rotateIfDue() {
+        SigningKey current = signingKey;
+        if (current != null && current.createdAt().plusNanos(rotationInterval * 1_000_000L).isAfter(LocalDateTime.now())) {
+            return;
+        }
+        JwtSigningKey created = generate();
+        keyRepo.save(created);
+        log.info("Rotated JWT signing key, new kid {}", created.getKid());
+        reload();
+    }
+
+    private synchronized void reload() {
+        lastReloadMillis = System.currentTimeMillis();
+        List<JwtSigningKey> rows = keyRepo.findAllByOrderByCreatedAtDesc();
+        List<SigningKey> live = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < rows.size(); i++) {
+            // A key retired when its successor was created; it must outlive the tokens it signed
+            boolean verifiable = i == 0 ||
+                    rows.get(i - 1).getCreatedAt().plusNanos(tokenExpiration * 1_000_000L).isAfter(now);
+            if (verifiable) {
+                live.add(toSigningKey(rows.get(i)));
+                sealIfPlain(rows.get(i));
+            } else {
+                keyRepo.delete(rows.get(i));
+                log.info("Removed expired JWT signing key {}", rows.get(i).getKid());
+            }
+        }
+        if (!live.isEmpty()) {
+            install(live);
+        }
+    }
+
+    private void install(List<SigningKey> keys) {
+        Map<String, PublicKey> verification = new HashMap<>();
+        List<Map<String, Object>> jwkList = new ArrayList<>();
+        for (SigningKey key : keys) {
+            verification.put(key.kid(), key.publicKey());
+            jwkList.add(toJwk(key));
+        }
+        this.verificationKeys = Map.copyOf(verification);
+        this.jwks = Map.of("keys", List.copyOf(jwkList));
+        this.signingKey = keys.get(0);
+    }
+
+    private JwtSigningKey generate() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair pair = generator.generateKeyPair();
+
+            JwtSigningKey key = new JwtSigningKey();
+            key.setKid(UUID.randomUUID().toString());
+            key.setAlgorithm(ALGORITHM);
+            key.setPrivateKey(seal(key.getKid(), pair.getPrivate().getEncoded()));
+            key.setPublicKey(Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()));
+            key.setCreatedAt(LocalDateTime.now());
+            return key;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate EC signing key", e);
+        }
+    }
+
+    private SigningKey toSigningKey(JwtSigningKey row) {
+        try {
+            KeyFactory factory = KeyFactory.getInstance("EC");
+            PrivateKey privateKey = factory.generatePrivate(
+                    new PKCS8EncodedKeySpec(unseal(row.getKid(), row.getPrivateKey())));
+            PublicKey publicKey = factory.generatePublic(
+                    new X509EncodedKeySpec(Base64.getDecoder().decode(row.getPublicKey())));
+            return new SigningKey(row.getKid(), privateKey, publicKey, row.getCreatedAt());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid stored signing key " + row.getKid(), e);
+        }
+    }
+
+    // Rows written before private keys were encrypted are sealed the first time they load
+    private void sealIfPlain(JwtSigningKey row) {
+        if (row.getPrivateKey().startsWith(SEALED_PREFIX)) return;
+        row.setPrivateKey(seal(row.getKid(), Base64.getDecoder().decode(row.getPrivateKey())));
+        keyRepo.save(row);
+        log.info("Encrypted stored JWT signing key {}", row.getKid());
+    }
+
+    // "v1:" + base64(iv || ciphertext || tag); the kid is bound in as associated data
+    private String seal(String kid, byte[] pkcs8) {
+        try {
+            byte[] iv = new byte[GCM_IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] sealed = cipher.doFinal(pkcs8);
+            byte[] out = new byte[iv.length + sealed.length];
+            System.arraycopy(iv, 0, out, 0, iv.length);
+            System.arraycopy(sealed, 0, out, iv.length, sealed.length);
+            return SEALED_PREFIX + Base64.getEncoder().encodeToString(out);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to encrypt signing key " + kid, e);
+        }
+    }
+
+    private byte[] unseal(String kid, String stored) throws GeneralSecurityException {
+        if (!stored.startsWith(SEALED_PREFIX)) {
+            return Base64.getDecoder().decode(stored);
+        }
+        byte[] in = Base64.getDecoder().decode(stored.substring(SEALED_PREFIX.length()));
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(GCM_TAG_BITS, in, 0, GCM_IV_BYTES));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(in, GCM_IV_BYTES, in.length - GCM_IV_BYTES);
+    }
+
+    private Map<String, Object> toJwk(SigningKey key) {
+        ECPublicKey publicKey = (ECPublicKey) key.publicKey();
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", key.kid());
+        jwk.put("use", "sig");
+        jwk.put("alg", ALGORITHM);
+        jwk.put("x", base64UrlCoordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", base64UrlCoordinate(publicKey.getW().getAffineY()));
+        return jwk;
+    }
+
+    // JWK coordinates are fixed-width (32 bytes for P-256), unsigned, big-endian
+    private String base64UrlCoordinate(BigInteger value) {
+        byte[] raw = value.toByteArray();
+        byte[] fixed = new byte[32];
+        int copy = Math.min(raw.length, 32);
+        System.arraycopy(raw, raw.length - copy, fixed, 32 - copy, copy);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+}
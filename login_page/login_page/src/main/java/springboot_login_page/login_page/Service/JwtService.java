@@ -1,58 +1,133 @@
 
 package springboot_login_page.login_page.Service;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import springboot_login_page.login_page.Entity.User;
-import springboot_login_page.login_page.Repository.mysql.MySQLUserRepository;
 
+import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 
 @Service
 public class JwtService {
 
+    public static final String ISSUED_AT_MILLIS = "iat_ms";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private long expiration;
 
-    private final MySQLUserRepository mySQLUserRepository;
+    // Accept HS256 tokens issued before the switch to ES256 until they have all expired
+    @Value("${jwt.accept-legacy-hmac:false}")
+    private boolean acceptLegacyHmac;
+
+    // ISO-8601 instant of the switch; HS256 is refused once every token issued before it has expired
+    @Value("${jwt.legacy-hmac-sunset:}")
+    private String legacyHmacSunset;
+
+    private Instant legacySunset;
+
+    private final JwtKeyService keyService;
 
-    public JwtService(MySQLUserRepository mySQLUserRepository) {
-        this.mySQLUserRepository = mySQLUserRepository;
+    // Built once; deriving the key and parser per call showed up on every request
+    private Key legacyKey;
+    private JwtParser parser;
+
+    public JwtService(JwtKeyService keyService) {
+        this.keyService = keyService;
     }
 
-    public String generateToken(String username) {
-        User user = mySQLUserRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    @PostConstruct
+    public void init() {
+        this.legacyKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.legacySunset = legacyHmacSunset == null || legacyHmacSunset.isBlank()
+                ? null : Instant.parse(legacyHmacSunset.trim());
+        if (acceptLegacyHmac && legacySunset == null) {
+            throw new IllegalStateException("jwt.accept-legacy-hmac requires jwt.legacy-hmac-sunset");
+        }
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveVerificationKey(header, claims);
+                    }
+                })
+                .build();
+    }
 
+    // The caller already holds the authenticated user row, so no lookup is needed here
+    public String generateToken(User user) {
+        JwtKeyService.SigningKey signingKey = keyService.getSigningKey();
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .setSubject(username)
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
                 .claim("role", user.getRole().name())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .setIssuedAt(new Date(now))
+                .claim(ISSUED_AT_MILLIS, now)
+                .setExpiration(new Date(now + expiration))
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.ES256)
                 .compact();
     }
 
+    private Key resolveVerificationKey(JwsHeader header, Claims claims) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            if (acceptsLegacy(claims) && SignatureAlgorithm.HS256.getValue().equals(header.getAlgorithm())) {
+                return legacyKey;
+            }
+            throw new SignatureException("Token has no key id");
+        }
+        Key key = keyService.getVerificationKey(kid);
+        if (key == null) {
+            throw new SignatureException("Unknown signing key " + kid);
+        }
+        return key;
+    }
+
+    // Only tokens issued before the sunset, and only until the last of them can have expired
+    private boolean acceptsLegacy(Claims claims) {
+        if (!acceptLegacyHmac || legacySunset == null) return false;
+        if (Instant.now().isAfter(legacySunset.plusMillis(expiration))) return false;
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null && issuedAt.toInstant().isBefore(legacySunset);
+    }
+
+    public long getExpiration() {
+        return expiration;
+    }
+
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    // iat only has second precision; tokens without the millisecond claim count from the start of that second
+    public static long issuedAtMillis(Claims claims) {
+        Number millis = claims.get(ISSUED_AT_MILLIS, Number.class);
+        if (millis != null) return millis.longValue();
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null ? issuedAt.getTime() : 0L;
+    }
+
     public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes()))
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return extractAllClaims(token).getSubject();
     }
 
     public String extractRole(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes()))
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .get("role", String.class);
+        return extractAllClaims(token).get("role", String.class);
     }
 }
\ No newline at end of file
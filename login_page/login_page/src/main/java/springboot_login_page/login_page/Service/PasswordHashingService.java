@@ -0,0 +1,170 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import springboot_login_page.login_page.util.LatencyStats;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt work on a dedicated, bounded pool so a login burst cannot
+ * occupy every request thread. When the queue is full callers get a 429.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+
+    private final LatencyStats hashLatency = new LatencyStats();
+    private final LatencyStats queueWait = new LatencyStats();
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHashingService(PasswordEncoder encoder,
+                                  @Value("${security.hashing.threads:0}") int threads,
+                                  @Value("${security.hashing.queue-capacity:64}") int queueCapacity) {
+        this.encoder = encoder;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password hashing pool started with {} thread(s) and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    public String encode(String rawPassword) {
+        return execute(() -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hashes a batch in parallel. At most one task per pool thread is queued at a time,
+     * so interactive logins never wait behind more than one round of bulk work.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        Deque<Future<String>> inFlight = new ArrayDeque<>();
+        int window = executor.getCorePoolSize();
+        try {
+            for (String raw : rawPasswords) {
+                if (inFlight.size() == window) {
+                    encoded.add(inFlight.removeFirst().get());
+                }
+                inFlight.addLast(submitWhenQueueAllows(() -> encoder.encode(raw)));
+            }
+            while (!inFlight.isEmpty()) {
+                encoded.add(inFlight.removeFirst().get());
+            }
+            return encoded;
+        } catch (InterruptedException e) {
+            inFlight.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing passwords");
+        } catch (ExecutionException e) {
+            inFlight.forEach(future -> future.cancel(true));
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Bulk callers back off instead of failing when logins have filled the queue
+    private Future<String> submitWhenQueueAllows(Callable<String> task) throws InterruptedException {
+        while (true) {
+            try {
+                return executor.submit(() -> {
+                    long startedAt = System.nanoTime();
+                    try {
+                        return task.call();
+                    } finally {
+                        hashLatency.record(System.nanoTime() - startedAt);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt);
+                try {
+                    return task.call();
+                } finally {
+                    hashLatency.record(System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing queue full, rejecting request");
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many concurrent authentication requests, retry later");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("poolSize", executor.getCorePoolSize());
+        metrics.put("activeThreads", executor.getActiveCount());
+        metrics.put("queueDepth", executor.getQueue().size());
+        metrics.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("hashLatency", hashLatency.snapshot());
+        metrics.put("queueWait", queueWait.snapshot());
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,122 @@
+package springboot_login_page.login_page.Service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import springboot_login_page.login_page.Entity.RefreshToken;
+import springboot_login_page.login_page.Repository.mysql.MySQLRefreshTokenRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HexFormat;
+
+/**
+ * Opaque, single-use refresh tokens. Only a SHA-256 of each token is stored, so
+ * validating one is an indexed lookup rather than a BCrypt verification.
+ */
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final MySQLRefreshTokenRepository refreshTokenRepo;
+
+    @Value("${jwt.refresh-expiration:604800000}")
+    private long refreshExpiration;
+
+    @Transactional
+    public String issue(String username) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(rawToken));
+        refreshToken.setUsername(username);
+        refreshToken.setCreatedAt(LocalDateTime.now());
+        refreshToken.setExpiresAt(LocalDateTime.now().plusNanos(refreshExpiration * 1_000_000L));
+        refreshTokenRepo.save(refreshToken);
+        return rawToken;
+    }
+
+    /**
+     * Consumes a refresh token and returns the username it was issued to.
+     * Each token can be used exactly once; a concurrent replay loses the delete race.
+     */
+    @Transactional
+    public String consume(String rawToken) {
+        if (rawToken == null || rawToken.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token is required");
+        }
+
+        String tokenHash = hash(rawToken);
+        RefreshToken stored = refreshTokenRepo.findByTokenHash(tokenHash)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token"));
+
+        if (refreshTokenRepo.deleteByTokenHash(tokenHash) == 0) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token already used");
+        }
+        if (stored.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token expired");
+        }
+        return stored.getUsername();
+    }
+
+    @Transactional
+    public void revoke(String rawToken) {
+        if (rawToken != null && !rawToken.isEmpty()) {
+            refreshTokenRepo.deleteByTokenHash(hash(rawToken));
+        }
+    }
+
+    @Transactional
+    public void revokeAll(String username) {
+        int removed = refreshTokenRepo.deleteByUsername(username);
+        log.info("Revoked {} refresh token(s) for user {}", removed, username);
+    }
+
+    @Transactional
+    public void revokeAll(Collection<String> usernames) {
+        if (usernames.isEmpty()) return;
+        int removed = refreshTokenRepo.deleteByUsernameIn(usernames);
+        log.info("Revoked {} refresh token(s) for {} user(s)", removed, usernames.size());
+    }
+
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
+    @Scheduled(fixedDelay = 3600000)
+    public void purgeExpired() {
+        try {
+            int removed = refreshTokenRepo.deleteExpired(LocalDateTime.now());
+            if (removed > 0) {
+                log.info("Purged {} expired refresh token(s)", removed);
+            }
+        } catch (Exception e) {
+            log.error("Failed to purge expired refresh tokens: {}", e.getMessage());
+        }
+    }
+
+    private String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
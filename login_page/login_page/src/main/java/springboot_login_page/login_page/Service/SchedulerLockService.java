@@ -0,0 +1,116 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named leases in MySQL so that a job scheduled on every node runs on one node at a time.
+ *
+ * A lease is a row in scheduler_locks owned by this instance until locked_until; an
+ * owner that dies simply stops renewing and the row is free again once it expires.
+ * Expiry is compared against the database clock, so node clock skew does not matter.
+ * Every statement commits on its own, even when the caller is inside a transaction,
+ * so other nodes see the lease immediately. Within a node the lease belongs to the
+ * thread that took it, so two jobs here cannot both hold it through the shared owner.
+ */
+@Service
+public class SchedulerLockService {
+
+    private static final Logger log = LoggerFactory.getLogger(SchedulerLockService.class);
+
+    // Held by every job that moves audit rows in bulk or rebuilds audit_logs
+    public static final String AUDIT_LOGS = "audit-logs";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final String owner;
+    private final Map<String, Thread> holders = new ConcurrentHashMap<>();
+
+    public SchedulerLockService(@Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbc,
+                                @Qualifier("mysqlTransactionManager") PlatformTransactionManager mysqlTx) {
+        this.jdbc = mysqlJdbc;
+        this.tx = new TransactionTemplate(mysqlTx);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.owner = hostName() + ":" + UUID.randomUUID();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    // Before ApplicationReadyEvent listeners, which may already want a lease
+    @PostConstruct
+    public void createTable() {
+        try {
+            jdbc.execute("CREATE TABLE IF NOT EXISTS scheduler_locks (" +
+                    "name VARCHAR(64) NOT NULL PRIMARY KEY, owner VARCHAR(128) NOT NULL, " +
+                    "locked_until DATETIME(3) NOT NULL)");
+        } catch (Exception e) {
+            log.error("Failed to prepare scheduler_locks: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Takes the lease, or extends it when this thread already holds it. False when another
+     * job holds it, here or on another node, or MySQL cannot be reached.
+     */
+    public boolean tryLock(String name, long leaseMillis) {
+        Thread current = Thread.currentThread();
+        Thread holder = holders.putIfAbsent(name, current);
+        if (holder != null && holder != current) return false;
+        if (acquire(name, leaseMillis)) return true;
+        if (holder == null) holders.remove(name, current);
+        return false;
+    }
+
+    private boolean acquire(String name, long leaseMillis) {
+        try {
+            Boolean acquired = tx.execute(status -> {
+                int updated = jdbc.update("UPDATE scheduler_locks " +
+                                "SET owner = ?, locked_until = TIMESTAMPADD(MICROSECOND, ? * 1000, NOW(3)) " +
+                                "WHERE name = ? AND (owner = ? OR locked_until < NOW(3))",
+                        owner, leaseMillis, name, owner);
+                if (updated == 1) return true;
+                try {
+                    jdbc.update("INSERT INTO scheduler_locks (name, owner, locked_until) " +
+                            "VALUES (?, ?, TIMESTAMPADD(MICROSECOND, ? * 1000, NOW(3)))", name, owner, leaseMillis);
+                    return true;
+                } catch (DuplicateKeyException e) {
+                    return false; // held by someone else
+                }
+            });
+            return Boolean.TRUE.equals(acquired);
+        } catch (Exception e) {
+            log.warn("Could not take scheduler lock {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    public void unlock(String name) {
+        if (!holders.remove(name, Thread.currentThread())) return;
+        try {
+            tx.executeWithoutResult(status -> jdbc.update(
+                    "UPDATE scheduler_locks SET locked_until = NOW(3) WHERE name = ? AND owner = ?", name, owner));
+        } catch (Exception e) {
+            // The lease runs out on its own
+            log.warn("Could not release scheduler lock {}: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package springboot_login_page.login_page.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import springboot_login_page.login_page.Entity.TokenRevocation;
+import springboot_login_page.login_page.Repository.mysql.MySQLTokenRevocationRepository;
+import springboot_login_page.login_page.util.BloomFilter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked token ids and per-user "not before" instants, held in memory behind a
+ * Bloom filter. The token_revocations table is the durable copy: it is loaded at
+ * startup and polled for rows written by other nodes, never on the request path.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final MySQLTokenRevocationRepository revocationRepo;
+    private final JwtService jwtService;
+    private final TransactionTemplate writeTx;
+
+    @Value("${security.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${security.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter bloom = new BloomFilter(1, 0.01);
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();   // jti -> expiry (epoch ms)
+    private final ConcurrentHashMap<String, Long> userNotBefore = new ConcurrentHashMap<>();   // username -> epoch ms
+    private volatile long lastSeenId = 0L;
+
+    public TokenRevocationService(MySQLTokenRevocationRepository revocationRepo, JwtService jwtService,
+                                  @Qualifier("mysqlTransactionManager") PlatformTransactionManager mysqlTx) {
+        this.revocationRepo = revocationRepo;
+        this.jwtService = jwtService;
+        // Callers revoke from afterCommit hooks, where joining their finished transaction would drop the row
+        this.writeTx = new TransactionTemplate(mysqlTx);
+        this.writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * O(1) and database-free. The Bloom filter answers the common "not revoked" case;
+     * the exact maps only see the rare positive.
+     */
+    public boolean isRevoked(String jti, String username, long issuedAtMillis) {
+        BloomFilter current = bloom;
+        if (jti != null && current.mightContain("t:" + jti) && revokedTokens.containsKey(jti)) {
+            return true;
+        }
+        if (username != null && current.mightContain("u:" + username)) {
+            Long notBefore = userNotBefore.get(username);
+            // A token issued in the same millisecond as the revocation is rejected too
+            return notBefore != null && issuedAtMillis <= notBefore;
+        }
+        return false;
+    }
+
+    public void revokeToken(String jti, Date expiresAt) {
+        if (jti == null) return;
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setType(TokenRevocation.Type.TOKEN);
+        revocation.setRevokedKey(jti);
+        revocation.setExpiresAt(expiresAt != null
+                ? LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault())
+                : LocalDateTime.now().plusNanos(jwtService.getExpiration() * 1_000_000L));
+        persistAndApply(revocation);
+    }
+
+    // Invalidates every access token issued to the user so far
+    public void revokeUser(String username) {
+        if (username == null) return;
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setType(TokenRevocation.Type.USER);
+        revocation.setRevokedKey(username);
+        revocation.setNotBefore(LocalDateTime.now());
+        revocation.setExpiresAt(LocalDateTime.now().plusNanos(jwtService.getExpiration() * 1_000_000L));
+        persistAndApply(revocation);
+    }
+
+    private void persistAndApply(TokenRevocation revocation) {
+        // Apply locally first so this node enforces it even if the write fails
+        synchronized (this) {
+            apply(revocation, bloom);
+        }
+        try {
+            writeTx.executeWithoutResult(status -> revocationRepo.save(revocation));
+        } catch (Exception e) {
+            log.error("Failed to persist {} revocation for {}: {}",
+                    revocation.getType(), revocation.getRevokedKey(), e.getMessage());
+        }
+    }
+
+    private void apply(TokenRevocation revocation, BloomFilter target) {
+        if (revocation.getType() == TokenRevocation.Type.TOKEN) {
+            revokedTokens.put(revocation.getRevokedKey(), toEpochMillis(revocation.getExpiresAt()));
+            target.put("t:" + revocation.getRevokedKey());
+        } else {
+            long notBefore = toEpochMillis(revocation.getNotBefore());
+            userNotBefore.merge(revocation.getRevokedKey(), notBefore, Math::max);
+            target.put("u:" + revocation.getRevokedKey());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelay = 3600000, initialDelay = 3600000)
+    public void rebuild() {
+        try {
+            revocationRepo.deleteExpired(LocalDateTime.now());
+            List<TokenRevocation> active = revocationRepo.findByExpiresAtAfterOrderByIdAsc(LocalDateTime.now());
+
+            BloomFilter fresh = new BloomFilter(Math.max(expectedEntries, active.size() * 2), falsePositiveRate);
+            long now = System.currentTimeMillis();
+            long oldestLiveIssue = now - jwtService.getExpiration();
+            revokedTokens.values().removeIf(expiry -> expiry < now);
+            userNotBefore.values().removeIf(notBefore -> notBefore < oldestLiveIssue);
+            for (TokenRevocation revocation : active) {
+                apply(revocation, fresh);
+                lastSeenId = Math.max(lastSeenId, revocation.getId());
+            }
+            // Entries only held in memory (e.g. a failed write) must survive the swap
+            synchronized (this) {
+                revokedTokens.keySet().forEach(jti -> fresh.put("t:" + jti));
+                userNotBefore.keySet().forEach(username -> fresh.put("u:" + username));
+                bloom = fresh;
+            }
+            log.info("Token revocation filter rebuilt with {} active revocation(s)", active.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild token revocation filter: {}", e.getMessage());
+        }
+    }
+
+    // Picks up revocations written by other nodes
+    @Scheduled(fixedDelayString = "${security.revocation.poll-interval-ms:15000}")
+    public void pollNewRevocations() {
+        try {
+            for (TokenRevocation revocation : revocationRepo.findByIdGreaterThanOrderByIdAsc(lastSeenId)) {
+                synchronized (this) {
+                    apply(revocation, bloom);
+                }
+                lastSeenId = Math.max(lastSeenId, revocation.getId());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to poll token revocations: {}", e.getMessage());
+        }
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0L : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
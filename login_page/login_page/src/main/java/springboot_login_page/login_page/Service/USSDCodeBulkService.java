@@ -0,0 +1,296 @@
+package springboot_login_page.login_page.Service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import springboot_login_page.login_page.DTO.USSDCodeDTO;
+import springboot_login_page.login_page.DTO.USSDImportReport;
+import springboot_login_page.login_page.Entity.USSDCode;
+import springboot_login_page.login_page.util.CsvSupport;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming CSV / NDJSON import and export of USSD codes.
+ *
+ * The import reads the body in chunks, validates each chunk in parallel against the
+ * USSDCodeDTO constraints and drops codes already seen earlier in the file. Each backend
+ * then receives one IN lookup and one JDBC batch insert per chunk, inside its own
+ * transaction, and the chunk gets a single summary audit entry.
+ */
+@Service
+public class USSDCodeBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(USSDCodeBulkService.class);
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_IN_LIST = 1000; // Oracle's limit for an IN list
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+    private static final String INSERT_SQL = "INSERT INTO ussd_codes (code, description, active) VALUES (?, ?, ?)";
+
+    public enum Format { CSV, NDJSON }
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false); // exported rows carry the id
+    private final Validator validator;
+    private final AuditService auditService;
+    private final USSDCodeCatalog catalog;
+    private final List<Backend> backends;
+
+    @Value("${ussd.import.batch-size:1000}")
+    private int batchSize;
+
+    public USSDCodeBulkService(Validator validator,
+                               AuditService auditService,
+                               USSDCodeCatalog catalog,
+                               @Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbc,
+                               @Qualifier("oracleJdbcTemplate") JdbcTemplate oracleJdbc,
+                               @Qualifier("postgresqlJdbcTemplate") JdbcTemplate postgresqlJdbc,
+                               @Qualifier("mysqlTransactionManager") PlatformTransactionManager mysqlTx,
+                               @Qualifier("oracleTransactionManager") PlatformTransactionManager oracleTx,
+                               @Qualifier("postgresqlTransactionManager") PlatformTransactionManager postgresqlTx) {
+        this.validator = validator;
+        this.auditService = auditService;
+        this.catalog = catalog;
+        this.backends = List.of(
+                new Backend("MySQL", mysqlJdbc, new TransactionTemplate(mysqlTx)),
+                new Backend("Oracle", oracleJdbc, new TransactionTemplate(oracleTx)),
+                new Backend("PostgreSQL", postgresqlJdbc, new TransactionTemplate(postgresqlTx)));
+    }
+
+    private record Backend(String name, JdbcTemplate jdbc, TransactionTemplate tx) {
+    }
+
+    private record RawRow(int line, String text) {
+    }
+
+    private record ParsedRow(int line, USSDCodeDTO code, String error) {
+    }
+
+    public static Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format: " + format + " (expected csv or ndjson)");
+        }
+    }
+
+    public USSDImportReport importCodes(InputStream body, Format format) throws IOException {
+        long started = System.currentTimeMillis();
+        int chunkSize = Math.max(1, Math.min(batchSize, MAX_IN_LIST));
+        String username = getCurrentUsername();
+        USSDImportReport report = new USSDImportReport();
+        for (Backend backend : backends) {
+            report.getInserted().put(backend.name(), 0);
+            report.getAlreadyPresent().put(backend.name(), 0);
+            report.getFailedRows().put(backend.name(), 0);
+        }
+
+        Set<String> seen = new HashSet<>();
+        List<RawRow> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        // Exported descriptions may hold line breaks inside quotes; NDJSON escapes them instead
+        CsvSupport.RecordReader records = format == Format.CSV
+                ? new CsvSupport.RecordReader(reader, MAX_RECORD_LENGTH) : null;
+        String line;
+        int lineNumber = 0;
+        while ((line = records != null ? records.next() : reader.readLine()) != null) {
+            lineNumber = records != null ? records.line() : lineNumber + 1;
+            if (line.isBlank()) continue;
+            if (lineNumber == 1 && format == Format.CSV && line.trim().toLowerCase(Locale.ROOT).startsWith("code")) {
+                continue; // header
+            }
+            chunk.add(new RawRow(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, format, seen, report, username);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, format, seen, report, username);
+        }
+
+        if (report.getValidRows() > 0) {
+            catalog.reload();
+        }
+        report.setDurationMillis(System.currentTimeMillis() - started);
+        log.info("Imported USSD codes: {} row(s), {} valid, {} invalid, {} duplicate, inserted {} in {} ms",
+                report.getTotalRows(), report.getValidRows(), report.getInvalidRows(), report.getDuplicateRows(),
+                report.getInserted(), report.getDurationMillis());
+        return report;
+    }
+
+    private void processChunk(List<RawRow> chunk, Format format, Set<String> seen,
+                              USSDImportReport report, String username) {
+        // Parsing and bean validation are CPU-bound and independent per row
+        List<ParsedRow> parsed = chunk.parallelStream().map(row -> parse(row, format)).toList();
+
+        List<USSDCodeDTO> accepted = new ArrayList<>(parsed.size());
+        for (ParsedRow row : parsed) {
+            report.setTotalRows(report.getTotalRows() + 1);
+            if (row.error() != null) {
+                report.setInvalidRows(report.getInvalidRows() + 1);
+                addError(report, row.line(), row.code() != null ? row.code().getCode() : null, row.error());
+            } else if (!seen.add(row.code().getCode())) {
+                report.setDuplicateRows(report.getDuplicateRows() + 1);
+                addError(report, row.line(), row.code().getCode(), "Duplicate of an earlier row");
+            } else {
+                accepted.add(row.code());
+            }
+        }
+        if (accepted.isEmpty()) return;
+
+        int batch = report.getBatches() + 1;
+        report.setBatches(batch);
+        report.setValidRows(report.getValidRows() + accepted.size());
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("batch", batch);
+        summary.put("rows", accepted.size());
+        summary.put("firstCode", accepted.get(0).getCode());
+        summary.put("lastCode", accepted.get(accepted.size() - 1).getCode());
+        for (Backend backend : backends) {
+            int[] result = writeBatch(backend, accepted);
+            report.getInserted().merge(backend.name(), result[0], Integer::sum);
+            report.getAlreadyPresent().merge(backend.name(), result[1], Integer::sum);
+            report.getFailedRows().merge(backend.name(), result[2], Integer::sum);
+            summary.put(backend.name().toLowerCase(Locale.ROOT) + "Inserted", result[0]);
+        }
+
+        try {
+            auditService.logBatch("BULK_IMPORT", "USSD_CODE", "batch-" + batch, summary, username);
+        } catch (Exception e) {
+            log.error("Failed to create audit log for import batch {}: {}", batch, e.getMessage());
+        }
+    }
+
+    // Returns {inserted, alreadyPresent, failed}
+    private int[] writeBatch(Backend backend, List<USSDCodeDTO> rows) {
+        try {
+            return backend.tx().execute(status -> {
+                Set<String> existing = existingCodes(backend, rows);
+                List<USSDCodeDTO> fresh = new ArrayList<>(rows.size());
+                for (USSDCodeDTO row : rows) {
+                    if (!existing.contains(row.getCode())) fresh.add(row);
+                }
+                backend.jdbc().batchUpdate(INSERT_SQL, fresh, fresh.size(), (ps, row) -> {
+                    ps.setString(1, row.getCode());
+                    ps.setString(2, row.getDescription());
+                    ps.setBoolean(3, row.isActive());
+                });
+                return new int[]{fresh.size(), rows.size() - fresh.size(), 0};
+            });
+        } catch (Exception e) {
+            log.error("Failed to import a batch of {} USSD code(s) into {}: {}", rows.size(), backend.name(), e.getMessage());
+            return new int[]{0, 0, rows.size()};
+        }
+    }
+
+    private Set<String> existingCodes(Backend backend, List<USSDCodeDTO> rows) {
+        String placeholders = String.join(",", Collections.nCopies(rows.size(), "?"));
+        Object[] codes = rows.stream().map(USSDCodeDTO::getCode).toArray();
+        return new HashSet<>(backend.jdbc().queryForList(
+                "SELECT code FROM ussd_codes WHERE code IN (" + placeholders + ")", String.class, codes));
+    }
+
+    private ParsedRow parse(RawRow row, Format format) {
+        USSDCodeDTO dto;
+        try {
+            if (format == Format.NDJSON) {
+                dto = objectMapper.readValue(row.text(), USSDCodeDTO.class);
+            } else {
+                List<String> fields = CsvSupport.parseLine(row.text());
+                dto = new USSDCodeDTO();
+                dto.setCode(fields.get(0).trim());
+                dto.setDescription(fields.size() > 1 && !fields.get(1).isEmpty() ? fields.get(1) : null);
+                dto.setActive(fields.size() < 3 || parseActive(fields.get(2)));
+            }
+        } catch (Exception e) {
+            return new ParsedRow(row.line(), null, "Unreadable row: " + e.getMessage());
+        }
+
+        Set<ConstraintViolation<USSDCodeDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return new ParsedRow(row.line(), dto, violations.iterator().next().getMessage());
+        }
+        return new ParsedRow(row.line(), dto, null);
+    }
+
+    // Blank means active, so a two-column file imports live codes
+    private static boolean parseActive(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        return switch (v) {
+            case "", "true", "1", "yes", "y" -> true;
+            case "false", "0", "no", "n" -> false;
+            default -> throw new IllegalArgumentException("Invalid active flag: " + value);
+        };
+    }
+
+    private static void addError(USSDImportReport report, int line, String code, String message) {
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new USSDImportReport.RowError(line, code, message));
+        }
+    }
+
+    // Written straight from the catalog snapshot; nothing is buffered beyond the writer
+    public void exportCodes(OutputStream out, Format format, List<USSDCode> codes) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            writer.write("code,description,active\n");
+        }
+        for (USSDCode code : codes) {
+            if (format == Format.CSV) {
+                writer.write(CsvSupport.escape(code.getCode()));
+                writer.write(',');
+                writer.write(CsvSupport.escape(code.getDescription()));
+                writer.write(',');
+                writer.write(Boolean.toString(code.isActive()));
+            } else {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("id", code.getId());
+                row.put("code", code.getCode());
+                row.put("description", code.getDescription());
+                row.put("active", code.isActive());
+                writer.write(objectMapper.writeValueAsString(row));
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private String getCurrentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            return authentication.getName();
+        }
+        return "system";
+    }
+}
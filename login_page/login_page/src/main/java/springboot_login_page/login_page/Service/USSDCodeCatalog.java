@@ -0,0 +1,223 @@
+package springboot_login_page.login_page.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import springboot_login_page.login_page.DTO.USSDCodeView;
+import springboot_login_page.login_page.Entity.USSDCode;
+import springboot_login_page.login_page.Repository.mysql.MySQLUSSDCodeRepository;
+import springboot_login_page.login_page.Repository.oracle.OracleUSSDCodeRepository;
+import springboot_login_page.login_page.Repository.postgresql.PostgreSQLUSSDCodeRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Read-optimized, immutable snapshot of the USSD code catalog indexed by id and by code.
+ * Reads are plain volatile loads; local mutations swap in a new snapshot after commit,
+ * and a periodic reload picks up changes made by other nodes. Entries are immutable
+ * views, never the entities a persistence context loaded, so readers may share them.
+ */
+@Service
+public class USSDCodeCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(USSDCodeCatalog.class);
+
+    private final MySQLUSSDCodeRepository mysqlRepo;
+    private final OracleUSSDCodeRepository oracleRepo;
+    private final PostgreSQLUSSDCodeRepository postgresqlRepo;
+
+    private volatile Snapshot snapshot;
+    private long mutationCount = 0L; // guarded by this
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public USSDCodeCatalog(MySQLUSSDCodeRepository mysqlRepo,
+                           OracleUSSDCodeRepository oracleRepo,
+                           PostgreSQLUSSDCodeRepository postgresqlRepo) {
+        this.mysqlRepo = mysqlRepo;
+        this.oracleRepo = oracleRepo;
+        this.postgresqlRepo = postgresqlRepo;
+    }
+
+    public record Snapshot(List<USSDCodeView> codes, Map<Long, USSDCodeView> byId, Map<String, USSDCodeView> byCode) {
+
+        static Snapshot of(List<USSDCodeView> source) {
+            List<USSDCodeView> codes = new ArrayList<>(source);
+            Map<Long, USSDCodeView> byId = new HashMap<>();
+            Map<String, USSDCodeView> byCode = new HashMap<>();
+            for (USSDCodeView code : source) {
+                if (code.id() != null) byId.put(code.id(), code);
+                byCode.put(code.code(), code);
+            }
+            codes.sort(Comparator.comparing(USSDCodeView::id, Comparator.nullsLast(Comparator.naturalOrder())));
+            return new Snapshot(List.copyOf(codes), Map.copyOf(byId), Map.copyOf(byCode));
+        }
+    }
+
+    /**
+     * Derived indexes subscribe here to stay in step with the catalog. Callbacks run
+     * one at a time, in mutation order, after the new snapshot has been published.
+     */
+    public interface Listener {
+        void onReload(List<USSDCodeView> codes);
+
+        // previous is null when the code is new
+        void onUpsert(USSDCodeView previous, USSDCodeView current);
+
+        void onRemove(USSDCodeView removed);
+    }
+
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+        if (snapshot != null) {
+            listener.onReload(snapshot.codes());
+        }
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    public List<USSDCodeView> getAll() {
+        Snapshot current = snapshot;
+        return current != null ? current.codes() : List.of();
+    }
+
+    public Optional<USSDCodeView> findById(Long id) {
+        Snapshot current = snapshot;
+        return current != null ? Optional.ofNullable(current.byId().get(id)) : Optional.empty();
+    }
+
+    public Optional<USSDCodeView> findByCode(String code) {
+        Snapshot current = snapshot;
+        return current != null ? Optional.ofNullable(current.byCode().get(code)) : Optional.empty();
+    }
+
+    // Applied after the surrounding transaction commits, so a rollback never reaches readers
+    public void upsert(USSDCode code) {
+        USSDCodeView view = USSDCodeView.of(code);
+        afterCommit(() -> applyUpsert(view));
+    }
+
+    public void remove(Long id) {
+        afterCommit(() -> applyRemove(id));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${ussd.catalog.refresh-interval-ms:30000}",
+            initialDelayString = "${ussd.catalog.refresh-interval-ms:30000}")
+    public void reload() {
+        long mutationsAtStart;
+        synchronized (this) {
+            mutationsAtStart = mutationCount;
+        }
+
+        List<USSDCodeView> codes;
+        try {
+            codes = loadFromDatabases().stream().map(USSDCodeView::of).toList();
+        } catch (Exception e) {
+            log.error("USSD catalog reload failed, keeping previous snapshot: {}", e.getMessage());
+            return;
+        }
+
+        Snapshot fresh = Snapshot.of(codes);
+        synchronized (this) {
+            // A local mutation raced with the read; its result is newer than what we loaded
+            if (mutationCount != mutationsAtStart) {
+                log.debug("Skipping USSD catalog reload that raced with a local mutation");
+                return;
+            }
+            snapshot = fresh;
+            notifyListeners(listener -> listener.onReload(fresh.codes()));
+        }
+        log.debug("USSD catalog reloaded with {} code(s)", fresh.codes().size());
+    }
+
+    private List<USSDCode> loadFromDatabases() {
+        try {
+            return mysqlRepo.findAll();
+        } catch (Exception e) {
+            log.warn("MySQL unavailable for catalog load, trying Oracle: {}", e.getMessage());
+            try {
+                return oracleRepo.findAll();
+            } catch (Exception ex) {
+                log.warn("Oracle unavailable for catalog load, trying PostgreSQL: {}", ex.getMessage());
+                return postgresqlRepo.findAll();
+            }
+        }
+    }
+
+    private synchronized void applyUpsert(USSDCodeView code) {
+        mutationCount++;
+        Snapshot current = snapshot;
+        if (current == null) return;
+
+        USSDCodeView previous = code.id() != null ? current.byId().get(code.id()) : null;
+        USSDCodeView displaced = current.byCode().get(code.code());
+
+        List<USSDCodeView> codes = new ArrayList<>(current.codes().size() + 1);
+        for (USSDCodeView existing : current.codes()) {
+            boolean sameId = code.id() != null && code.id().equals(existing.id());
+            if (!sameId && !existing.code().equals(code.code())) {
+                codes.add(existing);
+            }
+        }
+        codes.add(code);
+        snapshot = Snapshot.of(codes);
+
+        if (displaced != null && displaced != previous) {
+            notifyListeners(listener -> listener.onRemove(displaced));
+        }
+        notifyListeners(listener -> listener.onUpsert(previous, code));
+    }
+
+    private synchronized void applyRemove(Long id) {
+        mutationCount++;
+        Snapshot current = snapshot;
+        if (current == null || !current.byId().containsKey(id)) return;
+
+        USSDCodeView removed = current.byId().get(id);
+        List<USSDCodeView> codes = new ArrayList<>(current.codes());
+        codes.removeIf(existing -> id.equals(existing.id()));
+        snapshot = Snapshot.of(codes);
+        notifyListeners(listener -> listener.onRemove(removed));
+    }
+
+    private void notifyListeners(Consumer<Listener> event) {
+        for (Listener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (Exception e) {
+                log.error("USSD catalog listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+import springboot_login_page.login_page.DTO.USSDCodeView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resolves a dial string such as *123*456*789# to the longest registered active code
+ * (*123*456# or *123#) plus its trailing parameters.
+ *
+ * Backed by a persistent radix trie over the code alphabet (digits and '*'). Updates copy
+ * only the path they touch and publish a new root, so resolution is a lock-free walk that
+ * allocates nothing.
+ */
+@Service
+public class USSDCodeResolver implements USSDCodeCatalog.Listener {
+
+    private static final int ALPHABET = 11; // '0'..'9' and '*'
+    private static final Node EMPTY = new Node(new char[0], new Node[ALPHABET], null);
+
+    private final USSDCodeCatalog catalog;
+    private volatile Node root = EMPTY;
+
+    public USSDCodeResolver(USSDCodeCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    public record Resolution(USSDCodeView code, List<String> params) {
+    }
+
+    @PostConstruct
+    public void register() {
+        catalog.addListener(this);
+    }
+
+    /**
+     * Longest registered code that the dial string starts with, on a '*' boundary.
+     * Accepts the dial string with or without the terminating '#'. Allocation-free.
+     */
+    public USSDCodeView resolve(CharSequence dial) {
+        int end = dial.length();
+        if (end > 0 && dial.charAt(end - 1) == '#') end--;
+
+        Node node = root;
+        int pos = 0;
+        USSDCodeView best = null;
+        while (true) {
+            if (node.value != null && (pos == end || dial.charAt(pos) == '*')) {
+                best = node.value;
+            }
+            if (pos == end) break;
+
+            int slot = slot(dial.charAt(pos));
+            if (slot < 0) break;
+            Node child = node.children[slot];
+            if (child == null) break;
+
+            char[] label = child.label;
+            if (pos + label.length > end) break;
+            for (int i = 1; i < label.length; i++) {
+                if (dial.charAt(pos + i) != label[i]) return best;
+            }
+            pos += label.length;
+            node = child;
+        }
+        return best;
+    }
+
+    // Convenience form for the REST endpoint; splits the remainder into parameters
+    public Resolution resolveWithParams(String dial) {
+        USSDCodeView code = resolve(dial);
+        if (code == null) return null;
+
+        int matched = code.code().length() - 1; // registered code without '#'
+        int end = dial.endsWith("#") ? dial.length() - 1 : dial.length();
+        List<String> params = new ArrayList<>();
+        if (matched < end) {
+            for (String part : dial.substring(matched + 1, end).split("\\*", -1)) {
+                params.add(part);
+            }
+        }
+        return new Resolution(code, params);
+    }
+
+    @Override
+    public synchronized void onReload(List<USSDCodeView> codes) {
+        Node fresh = EMPTY;
+        for (USSDCodeView code : codes) {
+            if (code.active()) fresh = insert(fresh, key(code), 0, code);
+        }
+        root = fresh;
+    }
+
+    @Override
+    public synchronized void onUpsert(USSDCodeView previous, USSDCodeView current) {
+        Node updated = root;
+        if (previous != null) updated = remove(updated, key(previous), 0);
+        if (current != null && current.active()) updated = insert(updated, key(current), 0, current);
+        root = updated;
+    }
+
+    @Override
+    public synchronized void onRemove(USSDCodeView removed) {
+        if (removed != null) root = remove(root, key(removed), 0);
+    }
+
+    private static char[] key(USSDCodeView code) {
+        String value = code.code();
+        int end = value.endsWith("#") ? value.length() - 1 : value.length();
+        return value.substring(0, end).toCharArray();
+    }
+
+    private static int slot(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        return c == '*' ? 10 : -1;
+    }
+
+    // Returns a copy of node with key[pos..] mapped to value; node's own label is already matched
+    private static Node insert(Node node, char[] key, int pos, USSDCodeView value) {
+        if (pos == key.length) {
+            return new Node(node.label, node.children, value);
+        }
+        int slot = slot(key[pos]);
+        if (slot < 0) return node;
+
+        Node child = node.children[slot];
+        Node replacement;
+        if (child == null) {
+            replacement = new Node(Arrays.copyOfRange(key, pos, key.length), new Node[ALPHABET], value);
+        } else {
+            int common = commonPrefix(child.label, key, pos);
+            if (common == child.label.length) {
+                replacement = insert(child, key, pos + common, value);
+            } else {
+                // Split the edge at the divergence point
+                Node lower = new Node(Arrays.copyOfRange(child.label, common, child.label.length), child.children, child.value);
+                Node[] midChildren = new Node[ALPHABET];
+                midChildren[slot(lower.label[0])] = lower;
+                USSDCodeView midValue = null;
+                if (pos + common == key.length) {
+                    midValue = value;
+                } else {
+                    Node leaf = new Node(Arrays.copyOfRange(key, pos + common, key.length), new Node[ALPHABET], value);
+                    midChildren[slot(leaf.label[0])] = leaf;
+                }
+                replacement = new Node(Arrays.copyOf(child.label, common), midChildren, midValue);
+            }
+        }
+        Node[] children = node.children.clone();
+        children[slot] = replacement;
+        return new Node(node.label, children, node.value);
+    }
+
+    // Returns a copy of node without key[pos..], re-compressing single-child chains
+    private static Node remove(Node node, char[] key, int pos) {
+        if (pos == key.length) {
+            if (node.value == null) return node;
+            return compact(new Node(node.label, node.children, null));
+        }
+        int slot = slot(key[pos]);
+        if (slot < 0) return node;
+        Node child = node.children[slot];
+        if (child == null || commonPrefix(child.label, key, pos) != child.label.length) return node;
+
+        Node replacement = remove(child, key, pos + child.label.length);
+        if (replacement == child) return node;
+
+        Node[] children = node.children.clone();
+        children[slot] = replacement;
+        return compact(new Node(node.label, children, node.value));
+    }
+
+    // Returns null for an empty non-root node, or merges it with its only child
+    private static Node compact(Node node) {
+        if (node.label.length == 0 || node.value != null) return node;
+        Node only = null;
+        int count = 0;
+        for (Node child : node.children) {
+            if (child != null) {
+                only = child;
+                count++;
+            }
+        }
+        if (count == 0) return null;
+        if (count > 1) return node;
+        char[] merged = Arrays.copyOf(node.label, node.label.length + only.label.length);
+        System.arraycopy(only.label, 0, merged, node.label.length, only.label.length);
+        return new Node(merged, only.children, only.value);
+    }
+
+    private static int commonPrefix(char[] label, char[] key, int pos) {
+        int i = 0;
+        while (i < label.length && pos + i < key.length && label[i] == key[pos + i]) i++;
+        return i;
+    }
+
+    private static final class Node {
+        final char[] label;     // edge label from the parent; empty for the root
+        final Node[] children;  // indexed by the first character of each child's label
+        final USSDCodeView value;   // set when a registered code ends here
+
+        Node(char[] label, Node[] children, USSDCodeView value) {
+            this.label = label;
+            this.children = children;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+import springboot_login_page.login_page.DTO.USSDCodeSearchResult;
+import springboot_login_page.login_page.DTO.USSDCodeView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram inverted index over USSD code and description for search-as-you-type.
+ *
+ * Every trigram maps to the sorted ids of the codes containing it. A query intersects
+ * the posting lists of its own trigrams, then verifies and ranks the few candidates
+ * left. The index is immutable and swapped on each catalog change, like the resolver.
+ */
+@Service
+public class USSDCodeSearchIndex implements USSDCodeCatalog.Listener {
+
+    private static final int GRAM = 3;
+    private static final long[] NONE = new long[0];
+
+    private final USSDCodeCatalog catalog;
+    private volatile Index index = new Index(Map.of(), Map.of());
+
+    public USSDCodeSearchIndex(USSDCodeCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    private record Doc(USSDCodeView code, String codeText, String descriptionText) {
+    }
+
+    private record Index(Map<String, long[]> postings, Map<Long, Doc> docs) {
+    }
+
+    private record Hit(Doc doc, int score) {
+    }
+
+    @PostConstruct
+    public void register() {
+        catalog.addListener(this);
+    }
+
+    /**
+     * All whitespace-separated terms must appear in the code or description. Results
+     * are ranked exact code, code prefix, code substring, description word prefix,
+     * then description substring.
+     */
+    public USSDCodeSearchResult search(String query, int page, int size) {
+        Index current = index;
+        String[] terms = normalize(query).trim().split("\\s+");
+        if (terms.length == 1 && terms[0].isEmpty()) {
+            return new USSDCodeSearchResult(query, 0, page, size, List.of());
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (Doc doc : candidates(current, terms)) {
+            int score = 0;
+            for (String term : terms) {
+                int termScore = score(doc, term);
+                if (termScore == 0) {
+                    score = 0;
+                    break;
+                }
+                score += termScore;
+            }
+            if (score > 0) hits.add(new Hit(doc, doc.code().active() ? score + 1 : score));
+        }
+
+        hits.sort(Comparator.comparingInt(Hit::score).reversed()
+                .thenComparingInt(hit -> hit.doc().codeText().length())
+                .thenComparing(hit -> hit.doc().code().id()));
+
+        int from = Math.min(page * size, hits.size());
+        int to = Math.min(from + size, hits.size());
+        List<USSDCodeView> results = new ArrayList<>(to - from);
+        for (Hit hit : hits.subList(from, to)) {
+            results.add(hit.doc().code());
+        }
+        return new USSDCodeSearchResult(query, hits.size(), page, size, results);
+    }
+
+    private Iterable<Doc> candidates(Index current, String[] terms) {
+        List<long[]> lists = new ArrayList<>();
+        for (String term : terms) {
+            if (term.length() < GRAM) continue; // too short to have a trigram; verified below
+            for (String gram : grams(term)) {
+                lists.add(current.postings().getOrDefault(gram, NONE));
+            }
+        }
+        if (lists.isEmpty()) {
+            return current.docs().values();
+        }
+
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        long[] ids = lists.get(0);
+        for (int i = 1; i < lists.size() && ids.length > 0; i++) {
+            ids = intersect(ids, lists.get(i));
+        }
+        List<Doc> docs = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            docs.add(current.docs().get(id));
+        }
+        return docs;
+    }
+
+    private static int score(Doc doc, String term) {
+        String code = doc.codeText();
+        if (code.equals(term)) return 100;
+        if (code.startsWith(term)) return 80;
+        if (code.contains(term)) return 60;
+
+        String description = doc.descriptionText();
+        int at = description.indexOf(term);
+        if (at < 0) return 0;
+        // Word prefix anywhere in the description beats a mid-word match
+        while (at >= 0) {
+            if (at == 0 || !Character.isLetterOrDigit(description.charAt(at - 1))) return 40;
+            at = description.indexOf(term, at + 1);
+        }
+        return 20;
+    }
+
+    @Override
+    public synchronized void onReload(List<USSDCodeView> codes) {
+        Map<String, List<Long>> building = new HashMap<>();
+        Map<Long, Doc> docs = new HashMap<>();
+        for (USSDCodeView code : codes) {
+            if (code.id() == null) continue;
+            Doc doc = toDoc(code);
+            docs.put(code.id(), doc);
+            for (String gram : docGrams(doc)) {
+                building.computeIfAbsent(gram, g -> new ArrayList<>()).add(code.id());
+            }
+        }
+
+        Map<String, long[]> postings = new HashMap<>(building.size() * 2);
+        building.forEach((gram, ids) -> {
+            long[] sorted = ids.stream().mapToLong(Long::longValue).sorted().toArray();
+            postings.put(gram, sorted);
+        });
+        index = new Index(postings, docs);
+    }
+
+    @Override
+    public synchronized void onUpsert(USSDCodeView previous, USSDCodeView current) {
+        Index base = index;
+        Map<String, long[]> postings = new HashMap<>(base.postings());
+        Map<Long, Doc> docs = new HashMap<>(base.docs());
+        if (previous != null) unindex(postings, docs, previous.id());
+        if (current != null && current.id() != null) {
+            unindex(postings, docs, current.id());
+            Doc doc = toDoc(current);
+            docs.put(current.id(), doc);
+            for (String gram : docGrams(doc)) {
+                postings.put(gram, insert(postings.getOrDefault(gram, NONE), current.id()));
+            }
+        }
+        index = new Index(postings, docs);
+    }
+
+    @Override
+    public synchronized void onRemove(USSDCodeView removed) {
+        if (removed == null || removed.id() == null) return;
+        Index base = index;
+        Map<String, long[]> postings = new HashMap<>(base.postings());
+        Map<Long, Doc> docs = new HashMap<>(base.docs());
+        unindex(postings, docs, removed.id());
+        index = new Index(postings, docs);
+    }
+
+    private static void unindex(Map<String, long[]> postings, Map<Long, Doc> docs, Long id) {
+        Doc existing = docs.remove(id);
+        if (existing == null) return;
+        for (String gram : docGrams(existing)) {
+            long[] remaining = delete(postings.getOrDefault(gram, NONE), id);
+            if (remaining.length == 0) {
+                postings.remove(gram);
+            } else {
+                postings.put(gram, remaining);
+            }
+        }
+    }
+
+    private static Doc toDoc(USSDCodeView code) {
+        String description = code.description() != null ? normalize(code.description()) : "";
+        return new Doc(code, normalize(code.code()), description);
+    }
+
+    // Whole-description grams, so substrings spanning a space still find the code
+    private static Set<String> docGrams(Doc doc) {
+        Set<String> grams = grams(doc.codeText());
+        grams.addAll(grams(doc.descriptionText()));
+        return grams;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static long[] insert(long[] ids, long id) {
+        int at = Arrays.binarySearch(ids, id);
+        if (at >= 0) return ids;
+        int pos = -at - 1;
+        long[] out = new long[ids.length + 1];
+        System.arraycopy(ids, 0, out, 0, pos);
+        out[pos] = id;
+        System.arraycopy(ids, pos, out, pos + 1, ids.length - pos);
+        return out;
+    }
+
+    private static long[] delete(long[] ids, long id) {
+        int at = Arrays.binarySearch(ids, id);
+        if (at < 0) return ids;
+        long[] out = new long[ids.length - 1];
+        System.arraycopy(ids, 0, out, 0, at);
+        System.arraycopy(ids, at + 1, out, at, ids.length - at - 1);
+        return out;
+    }
+}
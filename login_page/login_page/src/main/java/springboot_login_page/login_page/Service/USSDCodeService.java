@@ -4,16 +4,19 @@ package springboot_login_page.login_page.Service;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import springboot_login_page.login_page.DTO.USSDCodeView;
 import springboot_login_page.login_page.Entity.USSDCode;
 import springboot_login_page.login_page.Repository.mysql.MySQLUSSDCodeRepository;
 import springboot_login_page.login_page.Repository.oracle.OracleUSSDCodeRepository;
 import springboot_login_page.login_page.Repository.postgresql.PostgreSQLUSSDCodeRepository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
@@ -26,6 +29,7 @@ public class USSDCodeService {
     private final OracleUSSDCodeRepository oracleRepo;
     private final PostgreSQLUSSDCodeRepository postgresqlRepo;
     private final AuditService auditService; // ADD THIS
+    private final USSDCodeCatalog catalog;
 
     @Transactional
     public USSDCode createUSSDCode(USSDCode code) {
@@ -89,68 +93,52 @@ public class USSDCodeService {
             log.error("Failed to create audit log: {}", e.getMessage());
         }
 
+        if (savedCode != null) {
+            catalog.upsert(savedCode);
+        }
+
         log.info("USSD code created successfully in {} database(s)", successCount.get());
         return savedCode != null ? savedCode : code;
     }
 
+    // One conditional UPDATE per backend; the before-image comes from the catalog snapshot.
+    // Oracle and PostgreSQL are keyed by the old code of the MySQL row actually changed.
     @Transactional
     public void updateUSSDCode(Long id, USSDCode updatedCode) {
         log.info("Updating USSD code with id: {}", id);
 
-        USSDCode existingCode = mysqlRepo.findById(id)
-                .orElseThrow(() -> new RuntimeException("USSD code not found"));
-
+        USSDCode existingCode = beforeImage(id);
         String originalCode = existingCode.getCode();
         String newCode = updatedCode.getCode();
 
-        if (!originalCode.equals(newCode) && mysqlRepo.findByCode(newCode).isPresent()) {
-            throw new RuntimeException("USSD code " + newCode + " already exists");
+        int mysqlRows = updateMySQL(id, originalCode, updatedCode);
+        if (mysqlRows == 0) {
+            // The snapshot was stale (changed on another node); retry once against the current row
+            existingCode = mysqlRepo.findById(id)
+                    .orElseThrow(() -> new RuntimeException("USSD code not found"));
+            originalCode = existingCode.getCode();
+            mysqlRows = updateMySQL(id, originalCode, updatedCode);
         }
 
-        // Store a copy of the original state for audit
-        USSDCode beforeState = new USSDCode();
-        beforeState.setCode(existingCode.getCode());
-        beforeState.setDescription(existingCode.getDescription());
-        beforeState.setActive(existingCode.isActive());
-
-        AtomicInteger successCount = new AtomicInteger(0);
-
-        try {
-            existingCode.setCode(updatedCode.getCode());
-            existingCode.setDescription(updatedCode.getDescription());
-            existingCode.setActive(updatedCode.isActive());
-            mysqlRepo.save(existingCode);
-            successCount.incrementAndGet();
+        AtomicInteger successCount = new AtomicInteger(mysqlRows > 0 ? 1 : 0);
+        if (mysqlRows > 0) {
             log.info("Updated in MySQL");
-        } catch (Exception e) {
-            log.error("Failed to update MySQL: {}", e.getMessage());
         }
 
-        // Use a final variable for the code value
-        final String finalOriginalCode = originalCode;
-
         try {
-            oracleRepo.findByCode(finalOriginalCode).ifPresent(oracleCode -> {
-                oracleCode.setCode(updatedCode.getCode());
-                oracleCode.setDescription(updatedCode.getDescription());
-                oracleCode.setActive(updatedCode.isActive());
-                oracleRepo.save(oracleCode);
+            if (oracleRepo.updateByCode(originalCode, newCode, updatedCode.getDescription(), updatedCode.isActive()) > 0) {
                 successCount.incrementAndGet();
                 log.info("Updated in Oracle");
-            });
+            }
         } catch (Exception e) {
             log.error("Failed to update Oracle: {}", e.getMessage());
         }
 
         try {
-            postgresqlRepo.findByCode(finalOriginalCode).ifPresent(postgresqlCode -> {
-                postgresqlCode.setCode(updatedCode.getCode());
-                postgresqlCode.setDescription(updatedCode.getDescription());
-                postgresqlCode.setActive(updatedCode.isActive());
-                postgresqlRepo.save(postgresqlCode);
+            if (postgresqlRepo.updateByCode(originalCode, newCode, updatedCode.getDescription(), updatedCode.isActive()) > 0) {
                 successCount.incrementAndGet();
                 log.info("Updated in PostgreSQL");
-            });
+            }
         } catch (Exception e) {
             log.error("Failed to update PostgreSQL: {}", e.getMessage());
         }
@@ -159,6 +147,12 @@ public class USSDCodeService {
             throw new RuntimeException("Failed to update USSD code in any database");
         }
 
+        // Store a copy of the original state for audit
+        USSDCode beforeState = new USSDCode();
+        beforeState.setCode(existingCode.getCode());
+        beforeState.setDescription(existingCode.getDescription());
+        beforeState.setActive(existingCode.isActive());
+
         // ADD AUDIT LOGGING HERE
         try {
             String username = getCurrentUsername();
@@ -168,15 +162,41 @@ public class USSDCodeService {
             log.error("Failed to create audit log: {}", e.getMessage());
         }
 
+        USSDCode afterState = new USSDCode();
+        afterState.setId(existingCode.getId());
+        afterState.setCode(newCode);
+        afterState.setDescription(updatedCode.getDescription());
+        afterState.setActive(updatedCode.isActive());
+        catalog.upsert(afterState);
+
         log.info("USSD code updated successfully in {} database(s)", successCount.get());
     }
 
+    // The unique constraint on code replaces the separate duplicate lookup
+    private int updateMySQL(Long id, String originalCode, USSDCode updatedCode) {
+        try {
+            return mysqlRepo.updateByIdAndCode(id, originalCode, updatedCode.getCode(),
+                    updatedCode.getDescription(), updatedCode.isActive());
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("USSD code " + updatedCode.getCode() + " already exists");
+        } catch (Exception e) {
+            log.error("Failed to update MySQL: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    // One DELETE per backend; the before-image for the audit comes from the catalog snapshot
     @Transactional
     public void deleteUSSDCode(Long id) {
         log.info("Deleting USSD code with id: {}", id);
 
-        USSDCode code = mysqlRepo.findById(id)
-                .orElseThrow(() -> new RuntimeException("USSD code not found"));
+        USSDCode code = beforeImage(id);
+        int mysqlRows = deleteMySQL(id, code.getCode());
+        if (mysqlRows == 0) {
+            code = mysqlRepo.findById(id)
+                    .orElseThrow(() -> new RuntimeException("USSD code not found"));
+            mysqlRows = deleteMySQL(id, code.getCode());
+        }
 
         // Store a copy for audit before deletion
         USSDCode beforeDelete = new USSDCode();
@@ -185,34 +205,25 @@ public class USSDCodeService {
         beforeDelete.setActive(code.isActive());
 
         String deletedCode = code.getCode();
-        AtomicInteger successCount = new AtomicInteger(0);
-
-        try {
-            mysqlRepo.deleteById(id);
-            successCount.incrementAndGet();
+        AtomicInteger successCount = new AtomicInteger(mysqlRows > 0 ? 1 : 0);
+        if (mysqlRows > 0) {
             log.info("Deleted from MySQL");
-        } catch (Exception e) {
-            log.error("Failed to delete from MySQL: {}", e.getMessage());
         }
 
-        final String finalDeletedCode = deletedCode;
-
         try {
-            oracleRepo.findByCode(finalDeletedCode).ifPresent(oracleCode -> {
-                oracleRepo.delete(oracleCode);
+            if (oracleRepo.deleteByCode(deletedCode) > 0) {
                 successCount.incrementAndGet();
                 log.info("Deleted from Oracle");
-            });
+            }
         } catch (Exception e) {
             log.error("Failed to delete from Oracle: {}", e.getMessage());
         }
 
         try {
-            postgresqlRepo.findByCode(finalDeletedCode).ifPresent(postgresqlCode -> {
-                postgresqlRepo.delete(postgresqlCode);
+            if (postgresqlRepo.deleteByCode(deletedCode) > 0) {
                 successCount.incrementAndGet();
                 log.info("Deleted from PostgreSQL");
-            });
+            }
         } catch (Exception e) {
             log.error("Failed to delete from PostgreSQL: {}", e.getMessage());
         }
@@ -230,13 +241,35 @@ public class USSDCodeService {
             log.error("Failed to create audit log: {}", e.getMessage());
         }
 
+        catalog.remove(id);
+
         log.info("USSD code deleted successfully from {} database(s)", successCount.get());
     }
 
-    @Transactional(readOnly = true)
+    private int deleteMySQL(Long id, String code) {
+        try {
+            return mysqlRepo.deleteByIdAndCode(id, code);
+        } catch (Exception e) {
+            log.error("Failed to delete from MySQL: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    // Catalog copy when loaded, otherwise one primary-key read
+    private USSDCode beforeImage(Long id) {
+        return catalog.findById(id)
+                .map(USSDCodeView::toEntity)
+                .orElseGet(() -> mysqlRepo.findById(id)
+                        .orElseThrow(() -> new RuntimeException("USSD code not found")));
+    }
+
+    // Served from the in-memory catalog; no transaction or connection is needed on the hot path
     public List<USSDCode> getAllUSSDCodes() {
-        log.info("Fetching all USSD codes");
+        if (catalog.isLoaded()) {
+            return catalog.getAll().stream().map(USSDCodeView::toEntity).toList();
+        }
 
+        log.info("Catalog not loaded yet, fetching all USSD codes from the database");
         try {
             List<USSDCode> codes = mysqlRepo.findAll();
             log.info("Retrieved {} codes from MySQL", codes.size());
@@ -256,10 +289,14 @@ public class USSDCodeService {
         }
     }
 
-    @Transactional(readOnly = true)
     public USSDCode getUSSDCodeById(Long id) {
-        log.info("Fetching USSD code with id: {}", id);
+        Optional<USSDCodeView> cached = catalog.findById(id);
+        if (cached.isPresent()) {
+            return cached.get().toEntity();
+        }
 
+        // Miss: not loaded yet, or created on another node since the last refresh
+        log.info("Fetching USSD code with id: {}", id);
         return mysqlRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("USSD code not found with id: " + id));
     }
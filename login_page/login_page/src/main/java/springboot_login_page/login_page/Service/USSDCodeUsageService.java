@@ -0,0 +1,298 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import springboot_login_page.login_page.DTO.USSDCodeUsage;
+import springboot_login_page.login_page.DTO.USSDCodeUsageBucket;
+import springboot_login_page.login_page.DTO.USSDCodeView;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Per-code hit counts and last-used times, bucketed by hour.
+ *
+ * Dials only bump striped in-memory counters; a scheduled flush turns each hour's
+ * counters into one batched upsert per backend against ussd_code_stats. A backend that
+ * fails keeps its rows and receives them again on the next flush.
+ */
+@Service
+public class USSDCodeUsageService {
+
+    private static final Logger log = LoggerFactory.getLogger(USSDCodeUsageService.class);
+    private static final long BUCKET_MILLIS = 3_600_000L;
+
+    private final USSDCodeCatalog catalog;
+    private final List<Backend> backends;
+
+    @Value("${ussd.usage.max-pending-rows:100000}")
+    private int maxPendingRows;
+
+    private volatile Bucket current = new Bucket(System.currentTimeMillis() / BUCKET_MILLIS);
+    private final List<Bucket> sealed = new CopyOnWriteArrayList<>();
+    private final Object rollLock = new Object(); // never held across I/O
+
+    public USSDCodeUsageService(USSDCodeCatalog catalog,
+                                @Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbc,
+                                @Qualifier("oracleJdbcTemplate") JdbcTemplate oracleJdbc,
+                                @Qualifier("postgresqlJdbcTemplate") JdbcTemplate postgresqlJdbc,
+                                @Qualifier("mysqlTransactionManager") PlatformTransactionManager mysqlTx,
+                                @Qualifier("oracleTransactionManager") PlatformTransactionManager oracleTx,
+                                @Qualifier("postgresqlTransactionManager") PlatformTransactionManager postgresqlTx) {
+        this.catalog = catalog;
+        this.backends = List.of(
+                new Backend("MySQL", mysqlJdbc, new TransactionTemplate(mysqlTx),
+                        List.of("CREATE TABLE IF NOT EXISTS ussd_code_stats (" +
+                                "code_id BIGINT NOT NULL, bucket_start DATETIME NOT NULL, " +
+                                "hits BIGINT NOT NULL, last_used_at DATETIME(3), " +
+                                "PRIMARY KEY (code_id, bucket_start), KEY idx_ussd_code_stats_bucket (bucket_start))"),
+                        "INSERT INTO ussd_code_stats (code_id, bucket_start, hits, last_used_at) VALUES (?, ?, ?, ?) " +
+                                "ON DUPLICATE KEY UPDATE hits = hits + VALUES(hits), " +
+                                "last_used_at = GREATEST(COALESCE(last_used_at, VALUES(last_used_at)), VALUES(last_used_at))",
+                        " LIMIT ?"),
+                new Backend("Oracle", oracleJdbc, new TransactionTemplate(oracleTx),
+                        List.of("CREATE TABLE ussd_code_stats (" +
+                                        "code_id NUMBER(19) NOT NULL, bucket_start TIMESTAMP NOT NULL, " +
+                                        "hits NUMBER(19) NOT NULL, last_used_at TIMESTAMP, " +
+                                        "CONSTRAINT pk_ussd_code_stats PRIMARY KEY (code_id, bucket_start))",
+                                "CREATE INDEX idx_ussd_code_stats_bucket ON ussd_code_stats (bucket_start)"),
+                        "MERGE INTO ussd_code_stats s " +
+                                "USING (SELECT ? AS code_id, ? AS bucket_start, ? AS hits, ? AS last_used_at FROM dual) d " +
+                                "ON (s.code_id = d.code_id AND s.bucket_start = d.bucket_start) " +
+                                "WHEN MATCHED THEN UPDATE SET s.hits = s.hits + d.hits, " +
+                                "s.last_used_at = GREATEST(NVL(s.last_used_at, d.last_used_at), d.last_used_at) " +
+                                "WHEN NOT MATCHED THEN INSERT (code_id, bucket_start, hits, last_used_at) " +
+                                "VALUES (d.code_id, d.bucket_start, d.hits, d.last_used_at)",
+                        " FETCH FIRST ? ROWS ONLY"),
+                new Backend("PostgreSQL", postgresqlJdbc, new TransactionTemplate(postgresqlTx),
+                        List.of("CREATE TABLE IF NOT EXISTS ussd_code_stats (" +
+                                        "code_id BIGINT NOT NULL, bucket_start TIMESTAMP NOT NULL, " +
+                                        "hits BIGINT NOT NULL, last_used_at TIMESTAMP, " +
+                                        "PRIMARY KEY (code_id, bucket_start))",
+                                "CREATE INDEX IF NOT EXISTS idx_ussd_code_stats_bucket ON ussd_code_stats (bucket_start)"),
+                        "INSERT INTO ussd_code_stats (code_id, bucket_start, hits, last_used_at) VALUES (?, ?, ?, ?) " +
+                                "ON CONFLICT (code_id, bucket_start) DO UPDATE SET " +
+                                "hits = ussd_code_stats.hits + EXCLUDED.hits, " +
+                                "last_used_at = GREATEST(ussd_code_stats.last_used_at, EXCLUDED.last_used_at)",
+                        " LIMIT ?"));
+    }
+
+    private record Row(long codeId, Timestamp bucketStart, long hits, Timestamp lastUsedAt) {
+    }
+
+    private static final class Counter {
+        final LongAdder hits = new LongAdder();
+        final LongAccumulator lastUsed = new LongAccumulator(Math::max, 0L);
+    }
+
+    private static final class Bucket {
+        final long hour;
+        final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+        int drains; // flush thread only
+
+        Bucket(long hour) {
+            this.hour = hour;
+        }
+    }
+
+    private static final class Backend {
+        final String name;
+        final JdbcTemplate jdbc;
+        final TransactionTemplate tx;
+        final List<String> ddl;
+        final String upsertSql;
+        final String limitClause;
+        List<Row> pending = new ArrayList<>(); // rows a failed flush still owes this backend
+
+        Backend(String name, JdbcTemplate jdbc, TransactionTemplate tx, List<String> ddl,
+                String upsertSql, String limitClause) {
+            this.name = name;
+            this.jdbc = jdbc;
+            this.tx = tx;
+            this.ddl = ddl;
+            this.upsertSql = upsertSql;
+            this.limitClause = limitClause;
+        }
+    }
+
+    // Hot path: two striped counter updates, no locks, no I/O
+    public void recordHit(Long codeId) {
+        if (codeId == null) return;
+        long now = System.currentTimeMillis();
+        Bucket bucket = current;
+        if (bucket.hour != now / BUCKET_MILLIS) {
+            bucket = roll(now / BUCKET_MILLIS);
+        }
+        Counter counter = bucket.counters.get(codeId);
+        if (counter == null) {
+            counter = bucket.counters.computeIfAbsent(codeId, id -> new Counter());
+        }
+        counter.hits.increment();
+        counter.lastUsed.accumulate(now);
+    }
+
+    private Bucket roll(long hour) {
+        synchronized (rollLock) {
+            Bucket bucket = current;
+            if (bucket.hour < hour) {
+                sealed.add(bucket);
+                bucket = new Bucket(hour);
+                current = bucket;
+            }
+            return bucket;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createTables() {
+        for (Backend backend : backends) {
+            for (String statement : backend.ddl) {
+                try {
+                    backend.jdbc.execute(statement);
+                } catch (Exception e) {
+                    // ORA-00955: the object already exists
+                    if (!String.valueOf(e.getMessage()).contains("ORA-00955")) {
+                        log.error("Failed to prepare ussd_code_stats on {}: {}", backend.name, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${ussd.usage.flush-interval-ms:60000}",
+            initialDelayString = "${ussd.usage.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        roll(System.currentTimeMillis() / BUCKET_MILLIS);
+
+        List<Row> rows = new ArrayList<>();
+        drain(current, rows);
+        for (Iterator<Bucket> it = sealed.iterator(); it.hasNext(); ) {
+            Bucket bucket = it.next();
+            drain(bucket, rows);
+            // A dial that read the bucket just before it was sealed may still land in it
+            if (++bucket.drains >= 2) sealed.remove(bucket);
+        }
+
+        for (Backend backend : backends) {
+            List<Row> batch = backend.pending;
+            batch.addAll(rows);
+            if (batch.isEmpty()) continue;
+            try {
+                backend.tx.executeWithoutResult(status -> backend.jdbc.batchUpdate(backend.upsertSql, batch, 500,
+                        (ps, row) -> {
+                            ps.setLong(1, row.codeId());
+                            ps.setTimestamp(2, row.bucketStart());
+                            ps.setLong(3, row.hits());
+                            ps.setTimestamp(4, row.lastUsedAt());
+                        }));
+                backend.pending = new ArrayList<>();
+                log.debug("Flushed {} USSD usage row(s) to {}", batch.size(), backend.name);
+            } catch (Exception e) {
+                if (batch.size() > maxPendingRows) {
+                    log.error("Dropping {} USSD usage row(s) owed to {} after repeated failures",
+                            batch.size() - maxPendingRows, backend.name);
+                    backend.pending = new ArrayList<>(batch.subList(batch.size() - maxPendingRows, batch.size()));
+                }
+                log.warn("Failed to flush USSD usage to {}, will retry: {}", backend.name, e.getMessage());
+            }
+        }
+    }
+
+    private void drain(Bucket bucket, List<Row> rows) {
+        Timestamp bucketStart = new Timestamp(bucket.hour * BUCKET_MILLIS);
+        bucket.counters.forEach((codeId, counter) -> {
+            long hits = counter.hits.sumThenReset();
+            if (hits > 0) {
+                rows.add(new Row(codeId, bucketStart, hits, new Timestamp(counter.lastUsed.get())));
+            }
+        });
+    }
+
+    // Most dialed codes in [from, to), counted from flushed data
+    public List<USSDCodeUsage> getTopCodes(LocalDateTime from, LocalDateTime to, int limit) {
+        return query(backend -> backend.jdbc.query(
+                "SELECT code_id, SUM(hits) AS hits, MAX(last_used_at) AS last_used_at FROM ussd_code_stats " +
+                        "WHERE bucket_start >= ? AND bucket_start < ? GROUP BY code_id ORDER BY SUM(hits) DESC" +
+                        backend.limitClause,
+                (rs, i) -> toUsage(rs.getLong("code_id"), rs.getLong("hits"), rs.getTimestamp("last_used_at")),
+                Timestamp.valueOf(from), Timestamp.valueOf(to), limit));
+    }
+
+    // Hourly hit totals in [from, to), for one code or all of them
+    public List<USSDCodeUsageBucket> getHourlyBuckets(Long codeId, LocalDateTime from, LocalDateTime to) {
+        String filter = codeId != null ? " AND code_id = ?" : "";
+        Object[] args = codeId != null
+                ? new Object[]{Timestamp.valueOf(from), Timestamp.valueOf(to), codeId}
+                : new Object[]{Timestamp.valueOf(from), Timestamp.valueOf(to)};
+        return query(backend -> backend.jdbc.query(
+                "SELECT bucket_start, SUM(hits) AS hits FROM ussd_code_stats " +
+                        "WHERE bucket_start >= ? AND bucket_start < ?" + filter +
+                        " GROUP BY bucket_start ORDER BY bucket_start",
+                (rs, i) -> new USSDCodeUsageBucket(rs.getTimestamp("bucket_start").toLocalDateTime(), rs.getLong("hits")),
+                args));
+    }
+
+    // Catalog codes not dialed since the given instant; candidates for retirement
+    public List<USSDCodeUsage> getUnusedCodes(LocalDateTime since) {
+        Map<Long, Timestamp> lastUsed = new HashMap<>();
+        query(backend -> {
+            lastUsed.clear();
+            backend.jdbc.query("SELECT code_id, MAX(last_used_at) AS last_used_at FROM ussd_code_stats GROUP BY code_id",
+                    (RowCallbackHandler) rs -> lastUsed.put(rs.getLong("code_id"), rs.getTimestamp("last_used_at")));
+            return lastUsed;
+        });
+
+        List<USSDCodeUsage> unused = new ArrayList<>();
+        for (USSDCodeView code : catalog.getAll()) {
+            Timestamp last = lastUsed.get(code.id());
+            if (last == null || last.toLocalDateTime().isBefore(since)) {
+                unused.add(new USSDCodeUsage(code.id(), code.code(), 0L,
+                        last != null ? last.toLocalDateTime() : null));
+            }
+        }
+        unused.sort(Comparator.comparing(USSDCodeUsage::getLastUsedAt, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return unused;
+    }
+
+    private USSDCodeUsage toUsage(long codeId, long hits, Timestamp lastUsedAt) {
+        String code = catalog.findById(codeId).map(USSDCodeView::code).orElse(null);
+        return new USSDCodeUsage(codeId, code, hits, lastUsedAt != null ? lastUsedAt.toLocalDateTime() : null);
+    }
+
+    // Every backend holds the same counts; read from the first that answers
+    private <T> T query(Function<Backend, T> reader) {
+        RuntimeException failure = null;
+        for (Backend backend : backends) {
+            try {
+                return reader.apply(backend);
+            } catch (RuntimeException e) {
+                log.warn("{} unavailable for USSD usage query: {}", backend.name, e.getMessage());
+                failure = e;
+            }
+        }
+        throw new RuntimeException("USSD usage statistics are unavailable", failure);
+    }
+}
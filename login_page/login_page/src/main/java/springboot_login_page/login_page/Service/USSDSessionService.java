@@ -0,0 +1,295 @@
+package springboot_login_page.login_page.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import springboot_login_page.login_page.DTO.USSDSessionRequest;
+import springboot_login_page.login_page.DTO.USSDSessionResponse;
+import springboot_login_page.login_page.util.LatencyStats;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live USSD sessions, kept in memory for the few seconds they last.
+ *
+ * Sessions sit in lock-striped hash segments keyed by session id. Expiry uses a hashed
+ * timing wheel: each session is filed once under its deadline tick and re-filed lazily
+ * when the wheel reaches it after the subscriber extended it, so activity never touches
+ * the wheel and expiry costs O(1) per session. A session is only visible to the account
+ * that started it; other callers get the same 404 as for an unknown id.
+ */
+@Service
+public class USSDSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(USSDSessionService.class);
+    private static final int SEGMENTS = 64;
+    private static final int MAX_PATH_LENGTH = 182; // USSD string limit
+
+    private final USSDCodeResolver resolver;
+    private final USSDCodeUsageService usageService;
+    private final long tickMillis;
+    private final long ttlTicks;
+    private final int maxActive;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final Slot[] wheel;
+    private long processedTick = -1L; // only touched by the scheduler thread
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder ended = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyStats sessionDuration = new LatencyStats();
+    private final LatencyStats stepLatency = new LatencyStats();
+    private final LatencyStats subscriberThinkTime = new LatencyStats();
+
+    public USSDSessionService(USSDCodeResolver resolver,
+                              USSDCodeUsageService usageService,
+                              @Value("${ussd.session.ttl-ms:180000}") long ttlMillis,
+                              @Value("${ussd.session.tick-ms:1000}") long tickMillis,
+                              @Value("${ussd.session.wheel-size:512}") int wheelSize,
+                              @Value("${ussd.session.max-active:1000000}") int maxActive) {
+        this.resolver = resolver;
+        this.usageService = usageService;
+        this.tickMillis = Math.max(1, tickMillis);
+        this.ttlTicks = Math.max(1, (ttlMillis + this.tickMillis - 1) / this.tickMillis);
+        this.maxActive = maxActive;
+        this.wheel = new Slot[Math.max(2, wheelSize)];
+        for (int i = 0; i < SEGMENTS; i++) segments[i] = new Segment();
+        for (int i = 0; i < wheel.length; i++) wheel[i] = new Slot();
+    }
+
+    public USSDSessionResponse start(USSDSessionRequest request, String owner) {
+        long startedAt = System.nanoTime();
+        String msisdn = normalizeMsisdn(request.getMsisdn());
+        if (request.getDialString() == null || request.getDialString().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Dial string is required");
+        }
+
+        USSDCodeResolver.Resolution resolution = resolver.resolveWithParams(request.getDialString());
+        if (resolution == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No active USSD code matches " + request.getDialString());
+        }
+
+        if (active.incrementAndGet() > maxActive) {
+            active.decrementAndGet();
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "USSD session capacity reached");
+        }
+
+        String sessionId = request.getSessionId() != null && !request.getSessionId().isEmpty()
+                ? request.getSessionId() : UUID.randomUUID().toString();
+        Session session = new Session(sessionId, owner, msisdn, resolution.code().id(), resolution.code().code(),
+                String.join("*", resolution.params()), startedAt, currentTick() + ttlTicks);
+
+        Segment segment = segmentFor(sessionId);
+        synchronized (segment) {
+            if (segment.sessions.containsKey(sessionId)) {
+                active.decrementAndGet();
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Session " + sessionId + " already exists");
+            }
+            segment.sessions.put(sessionId, session);
+        }
+        schedule(session, session.deadlineTick);
+
+        started.increment();
+        usageService.recordHit(session.codeId);
+        stepLatency.record(System.nanoTime() - startedAt);
+        return view(session, true);
+    }
+
+    public USSDSessionResponse advance(String sessionId, String msisdn, String input, String caller) {
+        long now = System.nanoTime();
+        String expectedMsisdn = msisdn != null ? normalizeMsisdn(msisdn) : null;
+        Segment segment = segmentFor(sessionId);
+        synchronized (segment) {
+            Session session = owned(segment, sessionId, caller);
+            if (expectedMsisdn != null && !expectedMsisdn.equals(session.msisdn)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "MSISDN does not match the session");
+            }
+            subscriberThinkTime.record(now - session.lastActivityNanos);
+            session.step++;
+            if (input != null && !input.isEmpty()) {
+                String path = session.path.isEmpty() ? input : session.path + "*" + input;
+                session.path = path.length() > MAX_PATH_LENGTH ? path.substring(0, MAX_PATH_LENGTH) : path;
+            }
+            session.lastActivityNanos = now;
+            session.deadlineTick = currentTick() + ttlTicks;
+            USSDSessionResponse response = view(session, true);
+            stepLatency.record(System.nanoTime() - now);
+            return response;
+        }
+    }
+
+    public USSDSessionResponse get(String sessionId, String caller) {
+        Segment segment = segmentFor(sessionId);
+        synchronized (segment) {
+            return view(owned(segment, sessionId, caller), true);
+        }
+    }
+
+    public USSDSessionResponse end(String sessionId, String caller) {
+        Session session;
+        Segment segment = segmentFor(sessionId);
+        synchronized (segment) {
+            session = owned(segment, sessionId, caller);
+            segment.sessions.remove(sessionId);
+        }
+        active.decrementAndGet();
+        ended.increment();
+        sessionDuration.record(System.nanoTime() - session.startedNanos);
+        return view(session, false);
+    }
+
+    @Scheduled(fixedRateString = "${ussd.session.tick-ms:1000}")
+    public void tick() {
+        long now = currentTick();
+        if (processedTick < 0) processedTick = now - 1;
+        // After a long pause one full revolution still visits every slot
+        long from = Math.max(processedTick + 1, now - wheel.length + 1);
+        int expiredNow = 0;
+        for (long tick = from; tick <= now; tick++) {
+            expiredNow += expireSlot(wheel[(int) (tick % wheel.length)], now);
+        }
+        processedTick = now;
+        if (expiredNow > 0) {
+            log.debug("Expired {} USSD session(s), {} active", expiredNow, active.get());
+        }
+    }
+
+    private int expireSlot(Slot slot, long now) {
+        ArrayDeque<Session> due;
+        synchronized (slot) {
+            if (slot.sessions.isEmpty()) return 0;
+            due = slot.sessions;
+            slot.sessions = new ArrayDeque<>();
+        }
+
+        int count = 0;
+        for (Session session : due) {
+            Segment segment = segmentFor(session.id);
+            long reschedule = -1L;
+            boolean expiredSession = false;
+            synchronized (segment) {
+                if (segment.sessions.get(session.id) != session) continue; // already ended
+                if (session.deadlineTick > now) {
+                    reschedule = session.deadlineTick;
+                } else {
+                    segment.sessions.remove(session.id);
+                    expiredSession = true;
+                }
+            }
+            if (reschedule >= 0) {
+                schedule(session, reschedule);
+            } else if (expiredSession) {
+                active.decrementAndGet();
+                expired.increment();
+                sessionDuration.record(System.nanoTime() - session.startedNanos);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void schedule(Session session, long deadlineTick) {
+        Slot slot = wheel[(int) (deadlineTick % wheel.length)];
+        synchronized (slot) {
+            slot.sessions.add(session);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("active", active.get());
+        metrics.put("started", started.sum());
+        metrics.put("ended", ended.sum());
+        metrics.put("expired", expired.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("sessionDuration", sessionDuration.snapshot());
+        metrics.put("stepLatency", stepLatency.snapshot());
+        metrics.put("subscriberThinkTime", subscriberThinkTime.snapshot());
+        return metrics;
+    }
+
+    private long currentTick() {
+        return System.currentTimeMillis() / tickMillis;
+    }
+
+    // Caller must hold the segment lock
+    private static Session owned(Segment segment, String sessionId, String caller) {
+        Session session = segment.sessions.get(sessionId);
+        if (session == null || !session.owner.equals(caller)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Session not found or expired");
+        }
+        return session;
+    }
+
+    private Segment segmentFor(String sessionId) {
+        int h = sessionId.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    // Digits only, without the '+' prefix; kept as text so leading zeros survive
+    private static String normalizeMsisdn(String msisdn) {
+        if (msisdn == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "MSISDN is required");
+        }
+        String trimmed = msisdn.trim();
+        String digits = trimmed.startsWith("+") ? trimmed.substring(1) : trimmed;
+        if (!digits.matches("^\\d{6,15}$")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid MSISDN");
+        }
+        return digits;
+    }
+
+    private USSDSessionResponse view(Session session, boolean isActive) {
+        return new USSDSessionResponse(session.id, session.msisdn, session.codeId, session.code, session.step,
+                session.path, (System.nanoTime() - session.startedNanos) / 1_000_000L, isActive);
+    }
+
+    // Primitive fields apart from a few short strings
+    private static final class Session {
+        final String id;
+        final String owner;
+        final String msisdn;
+        final long codeId;
+        final String code;
+        final long startedNanos;
+        int step;
+        String path;
+        long lastActivityNanos;
+        long deadlineTick;
+
+        Session(String id, String owner, String msisdn, long codeId, String code, String path, long startedNanos,
+                long deadlineTick) {
+            this.id = id;
+            this.owner = owner;
+            this.msisdn = msisdn;
+            this.codeId = codeId;
+            this.code = code;
+            this.path = path;
+            this.startedNanos = startedNanos;
+            this.lastActivityNanos = startedNanos;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private static final class Segment {
+        final HashMap<String, Session> sessions = new HashMap<>();
+    }
+
+    private static final class Slot {
+        ArrayDeque<Session> sessions = new ArrayDeque<>();
+    }
+}
@@ -0,0 +1,306 @@
+package springboot_login_page.login_page.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import springboot_login_page.login_page.DTO.AdminRegisterRequest;
+import springboot_login_page.login_page.DTO.BulkUserReport;
+import springboot_login_page.login_page.DTO.BulkUserReport.RowResult;
+import springboot_login_page.login_page.DTO.BulkUserReport.Status;
+import springboot_login_page.login_page.Entity.User;
+import springboot_login_page.login_page.security.MyUserDetailsService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk counterpart of AuthService.registerUser / deleteUser.
+ *
+ * Existing usernames are found with one IN query per chunk, passwords are hashed in
+ * parallel on the shared hashing pool, and each backend receives one batched statement
+ * per chunk inside its own transaction. MySQL is authoritative for the per-row result;
+ * failures on the other backends are reported in the row message.
+ */
+@Service
+public class UserProvisioningService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserProvisioningService.class);
+    private static final int CHUNK = 1000; // Oracle's limit for an IN list
+
+    private final PasswordHashingService passwordHashingService;
+    private final AuditService auditService;
+    private final MyUserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final List<Backend> backends;
+
+    @Value("${admin.bulk-users.max-rows:5000}")
+    private int maxRows;
+
+    public UserProvisioningService(PasswordHashingService passwordHashingService,
+                                   AuditService auditService,
+                                   MyUserDetailsService userDetailsService,
+                                   RefreshTokenService refreshTokenService,
+                                   TokenRevocationService tokenRevocationService,
+                                   @Qualifier("mysqlJdbcTemplate") JdbcTemplate mysqlJdbc,
+                                   @Qualifier("oracleJdbcTemplate") JdbcTemplate oracleJdbc,
+                                   @Qualifier("postgresqlJdbcTemplate") JdbcTemplate postgresqlJdbc,
+                                   @Qualifier("mysqlTransactionManager") PlatformTransactionManager mysqlTx,
+                                   @Qualifier("oracleTransactionManager") PlatformTransactionManager oracleTx,
+                                   @Qualifier("postgresqlTransactionManager") PlatformTransactionManager postgresqlTx) {
+        this.passwordHashingService = passwordHashingService;
+        this.auditService = auditService;
+        this.userDetailsService = userDetailsService;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.backends = List.of(
+                new Backend("MySQL", mysqlJdbc, new TransactionTemplate(mysqlTx)),
+                new Backend("Oracle", oracleJdbc, new TransactionTemplate(oracleTx)),
+                new Backend("PostgreSQL", postgresqlJdbc, new TransactionTemplate(postgresqlTx)));
+    }
+
+    private record Backend(String name, JdbcTemplate jdbc, TransactionTemplate tx) {
+    }
+
+    private record NewUser(int index, String username, String password, User.Role role) {
+    }
+
+    public BulkUserReport provision(List<AdminRegisterRequest> requests) {
+        long started = System.currentTimeMillis();
+        checkSize(requests.size());
+        String adminUsername = getCurrentUsername();
+        RowResult[] results = new RowResult[requests.size()];
+
+        Set<String> seen = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AdminRegisterRequest request = requests.get(i);
+            String username = request.getUsername();
+            if (username == null || !username.matches("^\\d{6}$")) {
+                results[i] = new RowResult(username, Status.INVALID, "Username must be exactly 6 digits");
+            } else if (request.getPassword() == null || request.getPassword().length() < 6) {
+                results[i] = new RowResult(username, Status.INVALID, "Password must be at least 6 characters long");
+            } else if (!seen.add(username)) {
+                results[i] = new RowResult(username, Status.DUPLICATE, "Repeats an earlier row");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Set<String> existing = existingUsernames(backends.get(0),
+                candidates.stream().map(i -> requests.get(i).getUsername()).toList());
+        List<Integer> fresh = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            if (existing.contains(requests.get(i).getUsername())) {
+                results[i] = new RowResult(requests.get(i).getUsername(), Status.EXISTS, "Username already exists");
+            } else {
+                fresh.add(i);
+            }
+        }
+
+        // BCrypt dominates the cost; hash once per user and reuse the hash for every backend
+        List<String> hashes = passwordHashingService.encodeAll(
+                fresh.stream().map(i -> requests.get(i).getPassword()).toList());
+        List<NewUser> users = new ArrayList<>(fresh.size());
+        for (int k = 0; k < fresh.size(); k++) {
+            AdminRegisterRequest request = requests.get(fresh.get(k));
+            users.add(new NewUser(fresh.get(k), request.getUsername(), hashes.get(k),
+                    request.getRole() != null ? request.getRole() : User.Role.USER));
+        }
+
+        BulkUserReport report = newReport(requests.size());
+        for (int from = 0; from < users.size(); from += CHUNK) {
+            List<NewUser> chunk = users.subList(from, Math.min(from + CHUNK, users.size()));
+            Map<String, String> failures = new LinkedHashMap<>();
+            for (Backend backend : backends) {
+                try {
+                    int inserted = backend.tx().execute(status -> insertUsers(backend, chunk));
+                    report.getPerBackend().merge(backend.name(), inserted, Integer::sum);
+                } catch (Exception e) {
+                    log.error("Bulk user insert of {} row(s) failed on {}: {}", chunk.size(), backend.name(), e.getMessage());
+                    failures.put(backend.name(), e.getMessage());
+                }
+            }
+
+            boolean primaryFailed = failures.containsKey(backends.get(0).name());
+            for (NewUser user : chunk) {
+                results[user.index()] = primaryFailed
+                        ? new RowResult(user.username(), Status.FAILED, "Not written: " + failures.get(backends.get(0).name()))
+                        : new RowResult(user.username(), Status.CREATED, failures.isEmpty() ? null
+                        : "Not written to " + String.join(", ", failures.keySet()));
+            }
+            if (!primaryFailed) {
+                audit("BULK_CREATE", chunk.stream().map(NewUser::username).toList(), failures, adminUsername);
+            }
+        }
+
+        return finish(report, results, Status.CREATED, started);
+    }
+
+    public BulkUserReport deprovision(List<String> usernames) {
+        long started = System.currentTimeMillis();
+        checkSize(usernames.size());
+        String adminUsername = getCurrentUsername();
+        RowResult[] results = new RowResult[usernames.size()];
+
+        Set<String> seen = new HashSet<>();
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < usernames.size(); i++) {
+            String username = usernames.get(i);
+            if (username == null || !username.matches("^\\d{6}$")) {
+                results[i] = new RowResult(username, Status.INVALID, "Username must be exactly 6 digits");
+            } else if (username.equals(adminUsername)) {
+                results[i] = new RowResult(username, Status.INVALID, "Cannot delete your own account");
+            } else if (!seen.add(username)) {
+                results[i] = new RowResult(username, Status.DUPLICATE, "Repeats an earlier row");
+            } else {
+                candidates.put(username, i);
+            }
+        }
+
+        Set<String> existing = existingUsernames(backends.get(0), new ArrayList<>(candidates.keySet()));
+        List<String> targets = new ArrayList<>();
+        candidates.forEach((username, i) -> {
+            if (existing.contains(username)) {
+                targets.add(username);
+            } else {
+                results[i] = new RowResult(username, Status.NOT_FOUND, "User not found");
+            }
+        });
+
+        BulkUserReport report = newReport(usernames.size());
+        List<String> deleted = new ArrayList<>();
+        for (int from = 0; from < targets.size(); from += CHUNK) {
+            List<String> chunk = targets.subList(from, Math.min(from + CHUNK, targets.size()));
+            Map<String, String> failures = new LinkedHashMap<>();
+            for (Backend backend : backends) {
+                try {
+                    int removed = backend.tx().execute(status -> backend.jdbc().update(
+                            "DELETE FROM users WHERE username IN (" + placeholders(chunk.size()) + ")", chunk.toArray()));
+                    report.getPerBackend().merge(backend.name(), removed, Integer::sum);
+                } catch (Exception e) {
+                    log.error("Bulk user delete of {} row(s) failed on {}: {}", chunk.size(), backend.name(), e.getMessage());
+                    failures.put(backend.name(), e.getMessage());
+                }
+            }
+
+            boolean primaryFailed = failures.containsKey(backends.get(0).name());
+            for (String username : chunk) {
+                results[candidates.get(username)] = primaryFailed
+                        ? new RowResult(username, Status.FAILED, "Not deleted: " + failures.get(backends.get(0).name()))
+                        : new RowResult(username, Status.DELETED, failures.isEmpty() ? null
+                        : "Still present in " + String.join(", ", failures.keySet()));
+            }
+            if (!primaryFailed) {
+                deleted.addAll(chunk);
+                audit("BULK_DELETE", chunk, failures, adminUsername);
+            }
+        }
+
+        // Same session teardown as a single delete
+        for (String username : deleted) {
+            userDetailsService.evict(username);
+            tokenRevocationService.revokeUser(username);
+        }
+        try {
+            refreshTokenService.revokeAll(deleted);
+        } catch (Exception e) {
+            log.error("Failed to revoke refresh tokens for {} deleted user(s): {}", deleted.size(), e.getMessage());
+        }
+
+        return finish(report, results, Status.DELETED, started);
+    }
+
+    private int insertUsers(Backend backend, List<NewUser> chunk) {
+        // Backends can drift; skip users this one already has rather than failing the chunk
+        Set<String> present = existingUsernames(backend, chunk.stream().map(NewUser::username).toList());
+        List<NewUser> toInsert = chunk.stream().filter(user -> !present.contains(user.username())).toList();
+        if (toInsert.isEmpty()) return 0;
+        backend.jdbc().batchUpdate("INSERT INTO users (username, password, role) VALUES (?, ?, ?)",
+                toInsert, toInsert.size(), (ps, user) -> {
+                    ps.setString(1, user.username());
+                    ps.setString(2, user.password());
+                    ps.setString(3, user.role().name());
+                });
+        return toInsert.size();
+    }
+
+    private Set<String> existingUsernames(Backend backend, List<String> usernames) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < usernames.size(); from += CHUNK) {
+            List<String> chunk = usernames.subList(from, Math.min(from + CHUNK, usernames.size()));
+            existing.addAll(backend.jdbc().queryForList(
+                    "SELECT username FROM users WHERE username IN (" + placeholders(chunk.size()) + ")",
+                    String.class, chunk.toArray()));
+        }
+        return existing;
+    }
+
+    // One summary entry per chunk instead of one per user
+    private void audit(String action, List<String> usernames, Map<String, String> failures, String adminUsername) {
+        try {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", usernames.size());
+            summary.put("usernames", usernames);
+            if (!failures.isEmpty()) summary.put("failedBackends", new ArrayList<>(failures.keySet()));
+            auditService.logBatch(action, "USER", "bulk-" + usernames.get(0), summary, adminUsername);
+        } catch (Exception e) {
+            log.error("Failed to create audit log for {}: {}", action, e.getMessage());
+        }
+    }
+
+    private BulkUserReport newReport(int requested) {
+        BulkUserReport report = new BulkUserReport();
+        report.setRequested(requested);
+        for (Backend backend : backends) {
+            report.getPerBackend().put(backend.name(), 0);
+        }
+        return report;
+    }
+
+    private BulkUserReport finish(BulkUserReport report, RowResult[] results, Status success, long started) {
+        report.setResults(Arrays.asList(results));
+        report.setSucceeded((int) report.getResults().stream().filter(r -> r.getStatus() == success).count());
+        report.setDurationMillis(System.currentTimeMillis() - started);
+        log.info("Bulk user operation: {} of {} row(s) {} in {} ms, per backend {}",
+                report.getSucceeded(), report.getRequested(), success, report.getDurationMillis(), report.getPerBackend());
+        return report;
+    }
+
+    private void checkSize(int rows) {
+        if (rows == 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No rows supplied");
+        }
+        if (rows > maxRows) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxRows + " rows per request, got " + rows);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private String getCurrentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            return authentication.getName();
+        }
+        return "system";
+    }
+}
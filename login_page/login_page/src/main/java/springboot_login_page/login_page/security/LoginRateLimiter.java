@@ -0,0 +1,161 @@
+package springboot_login_page.login_page.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process token buckets for login attempts, keyed by username and by client IP.
+ * Bucket state is guarded by a fixed set of striped locks; idle buckets are evicted
+ * by the scheduled sweep so memory stays bounded even when an attacker cycles through
+ * usernames. When the table is full, untracked keys share one overflow bucket per
+ * dimension: they stay throttled without locking out users who already have a bucket,
+ * and the request thread never pays for a sweep.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginRateLimiter.class);
+    private static final int STRIPES = 64;
+
+    private static final String IP_OVERFLOW = "ip:*";
+    private static final String USER_OVERFLOW = "user:*";
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> overflow = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[STRIPES];
+
+    @Value("${security.login-rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.login-rate-limit.username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${security.login-rate-limit.username.refill-per-minute:5}")
+    private int usernameRefillPerMinute;
+
+    @Value("${security.login-rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${security.login-rate-limit.ip.refill-per-minute:20}")
+    private int ipRefillPerMinute;
+
+    @Value("${security.login-rate-limit.max-buckets:100000}")
+    private int maxBuckets;
+
+    @Value("${security.login-rate-limit.overflow.capacity:100}")
+    private int overflowCapacity;
+
+    @Value("${security.login-rate-limit.overflow.refill-per-minute:100}")
+    private int overflowRefillPerMinute;
+
+    @Value("${security.login-rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    public LoginRateLimiter() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Consumes one attempt for both the client IP and the username.
+     * Returns false when either bucket is empty; callers must reject the login before doing any work.
+     */
+    public boolean tryAcquire(String username, HttpServletRequest request) {
+        if (!enabled) return true;
+
+        String ip = resolveClientIp(request);
+        if (!tryAcquire("ip:" + ip, IP_OVERFLOW, ipCapacity, ipRefillPerMinute)) {
+            log.warn("Login throttled for IP {}", ip);
+            return false;
+        }
+        if (username != null
+                && !tryAcquire("user:" + username, USER_OVERFLOW, usernameCapacity, usernameRefillPerMinute)) {
+            log.warn("Login throttled for username {}", username);
+            return false;
+        }
+        return true;
+    }
+
+    public long retryAfterSeconds() {
+        int slowestRefill = Math.max(1, Math.min(usernameRefillPerMinute, ipRefillPerMinute));
+        return Math.max(1, 60 / slowestRefill);
+    }
+
+    private boolean tryAcquire(String key, String overflowKey, int capacity, int refillPerMinute) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                // Untracked keys are still throttled, together; the sweep frees room for them
+                log.debug("Login rate limiter at capacity ({} buckets), {} shares {}", maxBuckets, key, overflowKey);
+                key = overflowKey;
+                capacity = overflowCapacity;
+                refillPerMinute = overflowRefillPerMinute;
+                int initial = capacity;
+                bucket = overflow.computeIfAbsent(key, k -> new Bucket(initial, now));
+            } else {
+                int initial = capacity;
+                bucket = buckets.computeIfAbsent(key, k -> new Bucket(initial, now));
+            }
+        }
+
+        double refillPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        synchronized (lockFor(key)) {
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.lastRefillNanos) * refillPerNano);
+            bucket.lastRefillNanos = now;
+            if (bucket.tokens < 1.0) {
+                return false;
+            }
+            bucket.tokens -= 1.0;
+            return true;
+        }
+    }
+
+    // A bucket idle long enough to refill completely carries no state worth keeping
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        long idleNanos = TimeUnit.MINUTES.toNanos(1) * Math.max(1,
+                Math.max(ipCapacity / Math.max(1, ipRefillPerMinute), usernameCapacity / Math.max(1, usernameRefillPerMinute)));
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            synchronized (lockFor(entry.getKey())) {
+                if (now - entry.getValue().lastRefillNanos > idleNanos) {
+                    buckets.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    private Object lockFor(String key) {
+        return locks[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private String resolveClientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isEmpty() && !"unknown".equalsIgnoreCase(forwarded)) {
+                return forwarded.split(",")[0].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefillNanos;
+
+        private Bucket(double tokens, long lastRefillNanos) {
+            this.tokens = tokens;
+            this.lastRefillNanos = lastRefillNanos;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package springboot_login_page.login_page.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -9,15 +11,57 @@ import springboot_login_page.login_page.Entity.User;
 import springboot_login_page.login_page.Repository.mysql.MySQLUserRepository;
 
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @RequiredArgsConstructor
 public class MyUserDetailsService implements UserDetailsService {
     private final MySQLUserRepository mySQLUserRepository;
+
+    @Value("${security.user-cache.ttl-ms:60000}")
+    private long cacheTtlMs;
+
+    @Value("${security.user-cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    // Users resolved for authenticated requests, so steady-state traffic does not hit MySQL
+    private final ConcurrentHashMap<String, CachedUser> cache = new ConcurrentHashMap<>();
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return loadUser(username);
+    }
+
+    public User loadUser(String username) throws UsernameNotFoundException {
+        long now = System.currentTimeMillis();
+        CachedUser cached = cache.get(username);
+        if (cached != null && cached.expiresAt() > now) return cached.user();
+
         Optional<User> user = mySQLUserRepository.findByUsername(username);
-        if (user.isPresent()) return user.get();
-        throw new UsernameNotFoundException("User not found.");
+        if (user.isEmpty()) {
+            cache.remove(username);
+            throw new UsernameNotFoundException("User not found.");
+        }
+
+        if (cache.size() >= cacheMaxSize) {
+            purgeExpired();
+            if (cache.size() >= cacheMaxSize) cache.clear();
+        }
+        cache.put(username, new CachedUser(user.get(), now + cacheTtlMs));
+        return user.get();
+    }
+
+    // Must be called whenever a user's role changes or the user is removed
+    public void evict(String username) {
+        if (username != null) cache.remove(username);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+
+    private record CachedUser(User user, long expiresAt) {
     }
 }
\ No newline at end of file
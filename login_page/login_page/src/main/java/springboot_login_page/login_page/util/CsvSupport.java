@@ -0,0 +1,108 @@
+package springboot_login_page.login_page.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 field handling: quoted fields, doubled quotes, embedded commas and,
+ * through {@link RecordReader}, line breaks inside quoted fields. Embedded CR LF is
+ * read back as LF.
+ */
+public final class CsvSupport {
+
+    private CsvSupport() {
+    }
+
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Reads whole records from a stream, joining physical lines while a quoted field is
+     * still open. A quote left open for more than maxLength characters ends the record
+     * there, so one stray quote fails that row instead of swallowing the rest of the file.
+     */
+    public static final class RecordReader {
+
+        private final BufferedReader in;
+        private final int maxLength;
+        private int lineNumber;
+        private int recordLine;
+
+        public RecordReader(BufferedReader in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        // Null at end of input
+        public String next() throws IOException {
+            String line = in.readLine();
+            if (line == null) return null;
+            recordLine = ++lineNumber;
+            if (!endsQuoted(line, false)) return line;
+
+            StringBuilder record = new StringBuilder(line);
+            boolean quoted = true;
+            while (quoted && record.length() <= maxLength) {
+                String next = in.readLine();
+                if (next == null) break; // parseLine reports the unterminated field
+                lineNumber++;
+                record.append('\n').append(next);
+                quoted = endsQuoted(next, true);
+            }
+            return record.toString();
+        }
+
+        // First physical line of the record last returned by next(), counting from 1
+        public int line() {
+            return recordLine;
+        }
+
+        // Doubled quotes toggle twice, so parity alone tells whether a field is still open
+        private static boolean endsQuoted(String text, boolean quoted) {
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') quoted = !quoted;
+            }
+            return quoted;
+        }
+    }
+
+    public static String escape(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
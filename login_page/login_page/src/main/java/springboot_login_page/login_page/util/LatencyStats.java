@@ -0,0 +1,36 @@
+package springboot_login_page.login_page.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention-free latency accumulator exposed through the admin metrics endpoints.
+ */
+public class LatencyStats {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+
+    public void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        long n = count.sum();
+        long total = totalNanos.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", n);
+        result.put("avgMillis", n == 0 ? 0.0 : total / (double) n / 1_000_000.0);
+        result.put("maxMillis", maxNanos.get() / 1_000_000.0);
+        return result;
+    }
+}
@@ -0,0 +1,176 @@
+package springboot_login_page.login_page.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import springboot_login_page.login_page.DTO.AuditLogSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditArchiveServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2023, 3, 1, 0, 0);
+    private static final AuditQueryService.Filter ALL = new AuditQueryService.Filter(null, null, null, null, null, null);
+
+    @TempDir
+    Path dir;
+
+    private JdbcTemplate mysql;
+    private JdbcTemplate oracle;
+    private JdbcTemplate postgresql;
+    private SchedulerLockService locks;
+    private AuditArchiveService archive;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mysql = mock(JdbcTemplate.class);
+        oracle = mock(JdbcTemplate.class);
+        postgresql = mock(JdbcTemplate.class);
+        locks = mock(SchedulerLockService.class);
+        archive = new AuditArchiveService(mysql, oracle, postgresql, mock(PlatformTransactionManager.class),
+                mock(PlatformTransactionManager.class), mock(PlatformTransactionManager.class), dir.toString(), locks);
+        ReflectionTestUtils.setField(archive, "lockLeaseMs", 60_000L);
+        archive.open();
+
+        // The same two records on every backend, under each backend's own ids
+        holds(mysql, 101, 102);
+        holds(oracle, 7, 8);
+        holds(postgresql, 55, 56);
+    }
+
+    private static void holds(JdbcTemplate jdbc, long firstId, long secondId) throws Exception {
+        ResultSet first = row(firstId, DAY.plusHours(1), "alice");
+        ResultSet second = row(secondId, DAY.plusHours(2), "bob");
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(first);
+            handler.processRow(second);
+            return null;
+        }).when(jdbc).query(startsWith("SELECT"), any(RowCallbackHandler.class), any(), any());
+    }
+
+    private static ResultSet row(long id, LocalDateTime timestamp, String user) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getTimestamp("timestamp")).thenReturn(Timestamp.valueOf(timestamp));
+        when(rs.getString("user_id")).thenReturn(user);
+        when(rs.getString("username")).thenReturn(user);
+        when(rs.getString("action")).thenReturn("LOGIN");
+        when(rs.getString("entity_type")).thenReturn("USER");
+        when(rs.getString("entity_id")).thenReturn(user);
+        when(rs.getString("ip_address")).thenReturn("10.0.0.1");
+        when(rs.getString("changes")).thenReturn("{}");
+        when(rs.getString("details")).thenReturn("login from " + user);
+        return rs;
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).count();
+        }
+    }
+
+    @Test
+    void windowIsDedupedAcrossBackendsAndKeepsMySqlIds() throws IOException {
+        assertEquals(2, archive.archiveWindow(DAY, DAY.plusDays(1)));
+
+        List<AuditLogSummary> archived = archive.scan(ALL, 0);
+        assertEquals(List.of(102L, 101L), archived.stream().map(AuditLogSummary::getId).toList());
+        assertEquals("login from alice", archive.findById(101).orElseThrow().getDetails());
+        verify(oracle).update(startsWith("DELETE"), any(Timestamp.class), any(Timestamp.class));
+    }
+
+    @Test
+    void scanKeepsOnlyTheNewestMatchesUpToTheLimit() throws IOException {
+        archive.archiveWindow(DAY, DAY.plusDays(1));
+
+        List<AuditLogSummary> newest = archive.scan(ALL, 1);
+        assertEquals(List.of(102L), newest.stream().map(AuditLogSummary::getId).toList());
+    }
+
+    @Test
+    void segmentIsReadableEvenWhenADeleteFailsAndIsNotWrittenTwice() throws IOException {
+        when(oracle.update(startsWith("DELETE"), any(Timestamp.class), any(Timestamp.class)))
+                .thenThrow(new RuntimeException("ORA-03113"));
+        assertThrows(RuntimeException.class, () -> archive.archiveWindow(DAY, DAY.plusDays(1)));
+
+        // MySQL's copies are gone, so the segment must already be serving them
+        assertEquals(2, archive.scan(ALL, 0).size());
+        assertEquals(1, segmentFiles());
+
+        // The retry finds every row archived: it only finishes the deletes
+        when(oracle.update(startsWith("DELETE"), any(Timestamp.class), any(Timestamp.class))).thenReturn(2);
+        assertEquals(0, archive.archiveWindow(DAY, DAY.plusDays(1)));
+        assertEquals(1, segmentFiles());
+        assertEquals(2, archive.scan(ALL, 0).size());
+        verify(postgresql, times(1)).update(startsWith("DELETE"), any(Timestamp.class), any(Timestamp.class));
+    }
+
+    @Test
+    void archiveStandsDownWhenAnotherNodeHoldsTheLock() {
+        ReflectionTestUtils.setField(archive, "enabled", true);
+        when(locks.tryLock(anyString(), anyLong())).thenReturn(false);
+
+        archive.archive();
+
+        verify(mysql, never()).queryForObject(anyString(), eq(Timestamp.class));
+        verify(locks, never()).unlock(anyString());
+    }
+
+    @Test
+    void syncIsHeldOffWhileTheArchiveLockIsTaken() {
+        ReflectionTestUtils.setField(archive, "enabled", true);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        when(locks.tryLock(anyString(), anyLong())).thenReturn(false);
+        assertFalse(archive.runExclusive(() -> ran.set(true)));
+        assertFalse(ran.get());
+
+        when(locks.tryLock(anyString(), anyLong())).thenReturn(true);
+        assertTrue(archive.runExclusive(() -> ran.set(true)));
+        assertTrue(ran.get());
+        verify(locks).unlock("audit-logs");
+    }
+
+    @Test
+    void refreshPicksUpSegmentsWrittenByAnotherInstance() throws IOException {
+        // Another node sharing the directory, opened before this one archived anything
+        AuditArchiveService other = new AuditArchiveService(mysql, oracle, postgresql,
+                mock(PlatformTransactionManager.class), mock(PlatformTransactionManager.class),
+                mock(PlatformTransactionManager.class), dir.toString(), locks);
+        other.open();
+        archive.archiveWindow(DAY, DAY.plusDays(1));
+
+        assertEquals(0, other.scan(ALL, 0).size());
+        other.refresh();
+        assertEquals(2, other.scan(ALL, 0).size());
+    }
+}
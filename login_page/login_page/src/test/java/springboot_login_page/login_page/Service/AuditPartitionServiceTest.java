@@ -0,0 +1,62 @@
+package springboot_login_page.login_page.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AuditPartitionServiceTest {
+
+    private JdbcTemplate mysql;
+    private JdbcTemplate oracle;
+    private JdbcTemplate postgresql;
+    private SchedulerLockService locks;
+    private AuditPartitionService partitions;
+
+    @BeforeEach
+    void setUp() {
+        mysql = mock(JdbcTemplate.class);
+        oracle = mock(JdbcTemplate.class);
+        postgresql = mock(JdbcTemplate.class);
+        locks = mock(SchedulerLockService.class);
+        partitions = new AuditPartitionService(mysql, oracle, postgresql, mock(PlatformTransactionManager.class), locks);
+        ReflectionTestUtils.setField(partitions, "enabled", true);
+        ReflectionTestUtils.setField(partitions, "lockLeaseMs", 60_000L);
+    }
+
+    @Test
+    void disabledByDefaultDoesNothing() {
+        ReflectionTestUtils.setField(partitions, "enabled", false);
+        partitions.partitionTables();
+        partitions.maintain();
+        verifyNoInteractions(locks, mysql, oracle, postgresql);
+    }
+
+    @Test
+    void nodesWithoutTheLockLeaveTheTablesAlone() {
+        when(locks.tryLock(anyString(), anyLong())).thenReturn(false);
+        partitions.partitionTables();
+        partitions.maintain();
+        verifyNoInteractions(mysql, oracle, postgresql);
+    }
+
+    @Test
+    void unpartitionedTablesAreOnlyConvertedWhenAskedTo() {
+        when(locks.tryLock(anyString(), anyLong())).thenReturn(true);
+        partitions.partitionTables();
+
+        verify(mysql, never()).execute(anyString());
+        verify(oracle, never()).execute(anyString());
+        verify(postgresql, never()).execute(anyString());
+        verify(locks).unlock(SchedulerLockService.AUDIT_LOGS);
+    }
+}
@@ -0,0 +1,156 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import springboot_login_page.login_page.DTO.AuditLogPage;
+import springboot_login_page.login_page.DTO.AuditLogSummary;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditQueryServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private static AuditLogSummary row(long id, int minute, String userId) {
+        return new AuditLogSummary(id, T0.plusMinutes(minute), userId, userId, "LOGIN", "USER", userId, "10.0.0.1");
+    }
+
+    private static List<List<AuditLogSummary>> drain(Iterator<List<AuditLogSummary>> groups) {
+        List<List<AuditLogSummary>> out = new ArrayList<>();
+        groups.forEachRemaining(out::add);
+        return out;
+    }
+
+    @Test
+    void mergeInterleavesBackendsNewestFirst() {
+        List<List<AuditLogSummary>> merged = drain(AuditQueryService.mergeByTimestamp(List.of(
+                List.of(row(1, 9, "a"), row(2, 5, "b"), row(3, 1, "c")),
+                List.of(row(10, 8, "d"), row(11, 2, "e")),
+                List.of(row(20, 7, "f")))));
+
+        List<Integer> minutes = merged.stream().map(group -> group.get(0).getTimestamp().getMinute()).toList();
+        assertEquals(List.of(9, 8, 7, 5, 2, 1), minutes);
+        merged.forEach(group -> assertEquals(1, group.size()));
+    }
+
+    @Test
+    void mergeDropsCopiesOfTheSameRecordButKeepsDistinctRowsAtOneTimestamp() {
+        // The same record synced to two backends carries different ids there
+        List<List<AuditLogSummary>> merged = drain(AuditQueryService.mergeByTimestamp(List.of(
+                List.of(row(1, 5, "a"), row(2, 5, "b")),
+                List.of(row(40, 5, "a")),
+                List.of(row(70, 3, "c")))));
+
+        assertEquals(2, merged.size());
+        assertEquals(List.of("a", "b"), merged.get(0).stream().map(AuditLogSummary::getUserId).sorted().toList());
+        assertEquals("c", merged.get(1).get(0).getUserId());
+    }
+
+    @Test
+    void mergeOfEmptySourcesYieldsNothing() {
+        assertFalse(AuditQueryService.mergeByTimestamp(List.of(List.of(), List.of(), List.of())).hasNext());
+    }
+
+    // Backends answered from memory with the same predicates and ordering as the criteria query
+    private static AuditQueryService inMemory(Map<EntityManager, List<AuditLogSummary>> backends) {
+        AuditQueryService service = new AuditQueryService(null, null, null, 3, 5000, 30) {
+            @Override
+            List<AuditLogSummary> fetch(EntityManager em, Filter filter, Cursor after, int limit, long timeoutMs) {
+                return backends.get(em).stream()
+                        .filter(r -> filter.from() == null || !r.getTimestamp().isBefore(filter.from()))
+                        .filter(r -> filter.to() == null || !r.getTimestamp().isAfter(filter.to()))
+                        .filter(r -> after == null || r.getTimestamp().isBefore(after.timestamp())
+                                || (r.getTimestamp().equals(after.timestamp()) && r.getId() < after.id()))
+                        .sorted(Comparator.comparing(AuditLogSummary::getTimestamp)
+                                .thenComparing(AuditLogSummary::getId).reversed())
+                        .limit(limit > 0 ? limit : Long.MAX_VALUE)
+                        .toList();
+            }
+        };
+        List<EntityManager> ems = new ArrayList<>(backends.keySet());
+        ReflectionTestUtils.setField(service, "mysqlEm", ems.get(0));
+        ReflectionTestUtils.setField(service, "oracleEm", ems.get(1));
+        ReflectionTestUtils.setField(service, "postgresqlEm", ems.get(2));
+        return service;
+    }
+
+    @Test
+    void timestampSharedByMoreRowsThanAPageIsWalkedInPages() {
+        // Seven records at one instant, synced with different ids, and one older record
+        List<AuditLogSummary> mysql = new ArrayList<>();
+        List<AuditLogSummary> oracle = new ArrayList<>();
+        List<AuditLogSummary> postgresql = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            mysql.add(row(100 + i, 5, "u" + i));
+            oracle.add(row(500 + i, 5, "u" + i));
+            if (i < 4) postgresql.add(row(900 + i, 5, "u" + i)); // lagging copy
+        }
+        mysql.add(row(99, 1, "old"));
+        Map<EntityManager, List<AuditLogSummary>> backends = new LinkedHashMap<>();
+        backends.put(mock(EntityManager.class), mysql);
+        backends.put(mock(EntityManager.class), oracle);
+        backends.put(mock(EntityManager.class), postgresql);
+        AuditQueryService service = inMemory(backends);
+        AuditQueryService.Filter all = new AuditQueryService.Filter(null, null, null, null, null, null);
+
+        try {
+            Set<String> seen = new HashSet<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                AuditLogPage page = service.queryFederated(all, cursor, 3);
+                assertTrue(page.getItems().size() <= 3);
+                page.getItems().forEach(r -> assertTrue(seen.add(r.getUserId()), "repeated " + r.getUserId()));
+                cursor = page.getNextCursor();
+                pages++;
+            } while (cursor != null && pages < 10);
+
+            assertEquals(8, seen.size());
+            assertTrue(pages < 10);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void fullQueueAnswers503() {
+        AuditQueryService service = new AuditQueryService(null, null, null, 1, 5000, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        EntityManager stuck = mock(EntityManager.class);
+        when(stuck.getCriteriaBuilder()).thenAnswer(invocation -> {
+            release.await();
+            throw new IllegalStateException("backend down");
+        });
+        ReflectionTestUtils.setField(service, "mysqlEm", stuck);
+        ReflectionTestUtils.setField(service, "oracleEm", stuck);
+        ReflectionTestUtils.setField(service, "postgresqlEm", stuck);
+        try {
+            // One backend query runs, one waits in the queue and the third has nowhere to go
+            ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.queryFederated(
+                    new AuditQueryService.Filter(null, null, null, null, null, null), null, 10));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package springboot_login_page.login_page.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import springboot_login_page.login_page.Entity.AuditLog;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class AuditRollupServiceTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2023, 3, 1, 10, 0);
+
+    private JdbcTemplate mysql;
+    private JdbcTemplate oracle;
+    private JdbcTemplate postgresql;
+    private AuditRollupService rollups;
+
+    @BeforeEach
+    void setUp() {
+        mysql = mock(JdbcTemplate.class);
+        oracle = mock(JdbcTemplate.class);
+        postgresql = mock(JdbcTemplate.class);
+        rollups = new AuditRollupService(mysql, oracle, postgresql, mock(PlatformTransactionManager.class),
+                mock(PlatformTransactionManager.class), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(rollups, "maxPendingRows", 100_000);
+    }
+
+    private static AuditLog log(String user, String action, LocalDateTime timestamp) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setUserId(user);
+        auditLog.setAction(action);
+        auditLog.setEntityType("USER");
+        auditLog.setTimestamp(timestamp);
+        return auditLog;
+    }
+
+    // Upserted events per "granularity/dimension/value@bucket", summed over every batch sent
+    private static Map<String, Long> upserts(JdbcTemplate jdbc) {
+        Map<String, Long> events = new HashMap<>();
+        doAnswer(invocation -> {
+            Collection<Object> rows = invocation.getArgument(1);
+            ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+            for (Object row : rows) {
+                Map<Integer, Object> params = new HashMap<>();
+                PreparedStatement ps = mock(PreparedStatement.class);
+                doAnswer(set -> params.put(set.getArgument(0), set.getArgument(1))).when(ps).setString(anyInt(), any());
+                doAnswer(set -> params.put(set.getArgument(0), set.getArgument(1))).when(ps).setTimestamp(anyInt(), any());
+                doAnswer(set -> params.put(set.getArgument(0), set.getArgument(1))).when(ps).setLong(anyInt(), any(long.class));
+                setter.setValues(ps, row);
+                String key = params.get(1) + "/" + params.get(2) + "/" + params.get(3) + "@"
+                        + ((Timestamp) params.get(4)).toLocalDateTime();
+                events.merge(key, (Long) params.get(5), Long::sum);
+            }
+            return new int[0][];
+        }).when(jdbc).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        return events;
+    }
+
+    @Test
+    void flushUpsertsSummedCountsOnEveryBackend() {
+        Map<String, Long> mysqlEvents = upserts(mysql);
+        Map<String, Long> oracleEvents = upserts(oracle);
+        Map<String, Long> postgresqlEvents = upserts(postgresql);
+
+        rollups.record(log("alice", "LOGIN", HOUR.plusMinutes(5)));
+        rollups.record(log("alice", "LOGIN", HOUR.plusMinutes(40)));
+        rollups.record(log("bob", "UPDATE", HOUR.plusHours(1)));
+        rollups.flush();
+
+        assertEquals(2L, mysqlEvents.get("HOUR/ALL/*@" + HOUR));
+        assertEquals(1L, mysqlEvents.get("HOUR/ALL/*@" + HOUR.plusHours(1)));
+        assertEquals(3L, mysqlEvents.get("DAY/ALL/*@" + HOUR.toLocalDate().atStartOfDay()));
+        assertEquals(2L, mysqlEvents.get("DAY/USER/alice@" + HOUR.toLocalDate().atStartOfDay()));
+        assertEquals(1L, mysqlEvents.get("HOUR/ACTION/UPDATE@" + HOUR.plusHours(1)));
+        assertEquals(mysqlEvents, oracleEvents);
+        assertEquals(mysqlEvents, postgresqlEvents);
+        verify(mysql).batchUpdate(startsWith("INSERT INTO audit_rollups"), anyCollection(), anyInt(),
+                any());
+        verify(oracle).batchUpdate(startsWith("MERGE INTO audit_rollups"), anyCollection(), anyInt(),
+                any());
+
+        // Counts already flushed are not sent again
+        rollups.flush();
+        verify(mysql).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any());
+    }
+
+    @Test
+    void rowsOwedToAFailedBackendAreRetriedOnTheNextFlush() {
+        Map<String, Long> mysqlEvents = upserts(mysql);
+        List<Integer> attempts = new ArrayList<>();
+        doAnswer(invocation -> {
+            attempts.add(((Collection<?>) invocation.getArgument(1)).size());
+            throw new RuntimeException("ORA-03113");
+        }).when(oracle).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any());
+
+        rollups.record(log("alice", "LOGIN", HOUR));
+        rollups.flush();
+        Map<String, Long> oracleEvents = upserts(oracle);
+        rollups.record(log("alice", "LOGIN", HOUR.plusMinutes(1)));
+        rollups.flush();
+
+        assertEquals(List.of(8), attempts);
+        assertEquals(2L, mysqlEvents.get("HOUR/USER/alice@" + HOUR));
+        // The retry carries the first record's rows alongside the second's
+        assertEquals(mysqlEvents, oracleEvents);
+    }
+
+    @Test
+    void nothingIsWrittenWhenNothingWasRecorded() {
+        rollups.flush();
+
+        for (JdbcTemplate jdbc : List.of(mysql, oracle, postgresql)) {
+            verify(jdbc, never()).batchUpdate(anyString(), anyCollection(), anyInt(),
+                    any());
+        }
+    }
+}
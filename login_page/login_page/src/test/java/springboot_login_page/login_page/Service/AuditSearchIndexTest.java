@@ -0,0 +1,151 @@
+package springboot_login_page.login_page.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import springboot_login_page.login_page.DTO.AuditSearchResult;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditSearchIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private AuditSearchIndex open(int maxSegments) {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.getDataSource()).thenReturn(mock(DataSource.class));
+        AuditSearchIndex index = new AuditSearchIndex(jdbc, dir.toString(), 50_000, maxSegments);
+        index.open();
+        ReflectionTestUtils.setField(index, "caughtUp", true);
+        return index;
+    }
+
+    private static List<Long> ids(AuditSearchIndex index, String query) {
+        AuditSearchResult result = index.search(query, 0, 100);
+        return result.getIds();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".idx")).count();
+        }
+    }
+
+    @Test
+    void varintsRoundTripAcrossByteBoundaries() {
+        long[] ids = {1, 127, 128, 16_383, 16_384, 2_097_152, 1L << 40, Long.MAX_VALUE};
+        assertArrayEquals(ids, AuditSearchIndex.decode(AuditSearchIndex.encode(ids)));
+        assertArrayEquals(new long[0], AuditSearchIndex.decode(AuditSearchIndex.encode(new long[0])));
+    }
+
+    @Test
+    void smallGapsTakeOneByteEach() {
+        // One count byte, then one byte per gap below 128
+        assertEquals(1 + 4, AuditSearchIndex.encode(new long[]{100, 101, 105, 200}).length);
+    }
+
+    @Test
+    void intersectAndUnionKeepIdsSortedAndDistinct() {
+        long[] a = {1, 3, 5, 7, 9};
+        long[] b = {2, 3, 4, 7, 10};
+        assertArrayEquals(new long[]{3, 7}, AuditSearchIndex.intersect(a, b));
+        assertArrayEquals(new long[0], AuditSearchIndex.intersect(a, new long[]{2, 4}));
+        assertArrayEquals(new long[]{1, 2, 3, 4, 5, 7, 9, 10}, AuditSearchIndex.union(List.of(a, b)));
+        assertArrayEquals(new long[0], AuditSearchIndex.union(List.of()));
+    }
+
+    @Test
+    void flushedSegmentRoundTripsThroughItsDictionary() throws IOException {
+        AuditSearchIndex index = open(8);
+        index.index(10L, "{\"code\":\"*123#\"}", "balance check");
+        index.index(11L, "{\"code\":\"*456#\"}", "data bundle");
+        index.index(300L, "{\"code\":\"*123#\"}", "balance top-up");
+        index.flush();
+
+        Path file;
+        try (Stream<Path> files = Files.list(dir)) {
+            file = files.filter(f -> f.getFileName().toString().endsWith(".idx")).findFirst().orElseThrow();
+        }
+        AuditSearchIndex.Segment segment = AuditSearchIndex.readDictionary(file);
+        assertEquals(300L, segment.maxId());
+        assertEquals(1L, segment.generation());
+        // Every term's offset and length must land exactly on its postings
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertArrayEquals(new long[]{10, 300}, AuditSearchIndex.readPostings(segment, channel, "*123#"));
+            assertArrayEquals(new long[]{10, 300}, AuditSearchIndex.readPostings(segment, channel, "balance"));
+            assertArrayEquals(new long[]{11}, AuditSearchIndex.readPostings(segment, channel, "bundle"));
+            assertArrayEquals(new long[0], AuditSearchIndex.readPostings(segment, channel, "missing"));
+            assertArrayEquals(new long[]{10, 11, 300}, AuditSearchIndex.readPostings(segment, channel, "code"));
+            // The last term's postings end exactly at the end of the file
+            int last = segment.terms().length - 1;
+            assertEquals(channel.size(), segment.offsets()[last] + segment.lengths()[last]);
+        }
+
+        // A fresh instance reads the same answers back from disk
+        AuditSearchIndex reopened = open(8);
+        assertEquals(List.of(300L, 10L), ids(reopened, "balance *123#"));
+        assertEquals(List.of(11L), ids(reopened, "data"));
+    }
+
+    @Test
+    void mergeCombinesSegmentsWithoutLosingPostings() throws IOException {
+        AuditSearchIndex index = open(2);
+        index.index(1L, "alpha", "shared");
+        index.flush();
+        index.index(2L, "beta", "shared");
+        index.flush();
+        assertEquals(2, segmentFiles());
+
+        index.index(3L, "alpha", "shared");
+        index.flush(); // a third segment crosses max-segments
+
+        assertEquals(1, segmentFiles());
+        assertEquals(List.of(3L, 2L, 1L), ids(index, "shared"));
+        assertEquals(List.of(3L, 1L), ids(index, "alpha"));
+        assertEquals(List.of(3L, 1L), ids(open(2), "alpha shared"));
+    }
+
+    @Test
+    void recordsAreIndexedOnlyOnceTheirTransactionCommits() {
+        AuditSearchIndex index = open(8);
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.index(5L, "committed", null);
+        assertEquals(List.of(), ids(index, "committed"));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        assertEquals(List.of(5L), ids(index, "committed"));
+
+        // Rolled back: afterCommit never runs
+        TransactionSynchronizationManager.initSynchronization();
+        index.index(6L, "rolledback", null);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        assertEquals(List.of(), ids(index, "rolledback"));
+    }
+}
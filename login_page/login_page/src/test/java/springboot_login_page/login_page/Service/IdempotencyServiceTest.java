@@ -0,0 +1,133 @@
+package springboot_login_page.login_page.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import springboot_login_page.login_page.Entity.IdempotencyRecord;
+import springboot_login_page.login_page.Repository.mysql.MySQLIdempotencyRecordRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private MySQLIdempotencyRecordRepository repo;
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(MySQLIdempotencyRecordRepository.class);
+        service = new IdempotencyService(repo, 100, 86_400_000L, 60_000L);
+    }
+
+    // Another node already holds the key
+    private void claimedElsewhere(String requestHash, int statusCode) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setKeyHash("key");
+        record.setRequestHash(requestHash);
+        record.setStatusCode(statusCode);
+        record.setContentType("application/json");
+        record.setResponseBody("{}");
+        record.setCreatedAt(LocalDateTime.now());
+        when(repo.save(any(IdempotencyRecord.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(repo.findByKeyHash("key")).thenReturn(Optional.of(record));
+    }
+
+    @Test
+    void firstClaimProceedsAndLocalRetryWaits() {
+        assertEquals(IdempotencyService.Outcome.PROCEED, service.claim("key", "req").outcome());
+        assertEquals(IdempotencyService.Outcome.IN_PROGRESS, service.claim("key", "req").outcome());
+
+        when(repo.complete(eq("key"), anyString(), eq(201), any(), any())).thenReturn(1);
+        service.complete("key", "req", 201, "application/json", "{}");
+        assertEquals(IdempotencyService.Outcome.REPLAY, service.claim("key", "req").outcome());
+        assertEquals(IdempotencyService.Outcome.MISMATCH, service.claim("key", "other").outcome());
+    }
+
+    @Test
+    void liveClaimOnAnotherNodeIsInProgress() {
+        claimedElsewhere("req", 0);
+        when(repo.takeOver(eq("key"), anyString(), any(), any())).thenReturn(0);
+        assertEquals(IdempotencyService.Outcome.IN_PROGRESS, service.claim("key", "req").outcome());
+    }
+
+    @Test
+    void expiredLeaseIsTakenOver() {
+        claimedElsewhere("req", 0);
+        when(repo.takeOver(eq("key"), anyString(), any(), any())).thenReturn(1);
+        assertEquals(IdempotencyService.Outcome.PROCEED, service.claim("key", "req").outcome());
+        // This node now owns it until complete or abandon
+        assertEquals(IdempotencyService.Outcome.IN_PROGRESS, service.claim("key", "req").outcome());
+    }
+
+    @Test
+    void staleClaimForADifferentRequestIsStillAMismatch() {
+        claimedElsewhere("req", 0);
+        when(repo.takeOver(eq("key"), anyString(), any(), any())).thenReturn(1);
+        assertEquals(IdempotencyService.Outcome.MISMATCH, service.claim("key", "other").outcome());
+    }
+
+    @Test
+    void completedResponseOnAnotherNodeIsReplayed() {
+        claimedElsewhere("req", 201);
+        IdempotencyService.Claim claim = service.claim("key", "req");
+        assertEquals(IdempotencyService.Outcome.REPLAY, claim.outcome());
+        assertEquals(201, claim.response().statusCode());
+    }
+
+    @Test
+    void ownerKeepsItsLeaseRenewedUntilItCompletes() {
+        AtomicReference<String> token = new AtomicReference<>();
+        when(repo.save(any(IdempotencyRecord.class))).thenAnswer(invocation -> {
+            token.set(invocation.<IdempotencyRecord>getArgument(0).getOwnerToken());
+            return invocation.getArgument(0);
+        });
+        service.claim("key", "req");
+
+        service.renewLeases();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> renewed = ArgumentCaptor.forClass(Collection.class);
+        verify(repo).renew(renewed.capture(), any());
+        assertEquals(List.of(token.get()), List.copyOf(renewed.getValue()));
+
+        when(repo.complete("key", token.get(), 201, "application/json", "{}")).thenReturn(1);
+        service.complete("key", "req", 201, "application/json", "{}");
+        service.renewLeases();
+        verify(repo).renew(any(), any()); // nothing left to renew
+    }
+
+    @Test
+    void ownerThatLostItsLeaseCannotOverwriteOrReleaseTheKey() {
+        AtomicReference<String> token = new AtomicReference<>();
+        when(repo.save(any(IdempotencyRecord.class))).thenAnswer(invocation -> {
+            token.set(invocation.<IdempotencyRecord>getArgument(0).getOwnerToken());
+            return invocation.getArgument(0);
+        });
+        service.claim("key", "req");
+        // Another node took the key over: the conditional update matches nothing
+        when(repo.complete(eq("key"), anyString(), eq(201), any(), any())).thenReturn(0);
+
+        service.complete("key", "req", 201, "application/json", "{}");
+        verify(repo).complete("key", token.get(), 201, "application/json", "{}");
+        // Not cached either, so a retry reads the new owner's outcome from the store
+        when(repo.save(any(IdempotencyRecord.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(repo.findByKeyHash("key")).thenReturn(Optional.empty());
+        assertEquals(IdempotencyService.Outcome.IN_PROGRESS, service.claim("key", "req").outcome());
+
+        service.abandon("key");
+        verify(repo, never()).deleteByKeyHash(eq("key"), anyString());
+    }
+}
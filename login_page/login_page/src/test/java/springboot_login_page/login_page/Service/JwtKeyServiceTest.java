@@ -0,0 +1,102 @@
+package springboot_login_page.login_page.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import springboot_login_page.login_page.Entity.JwtSigningKey;
+import springboot_login_page.login_page.Repository.mysql.MySQLJwtSigningKeyRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtKeyServiceTest {
+
+    private final List<JwtSigningKey> rows = new ArrayList<>();
+    private MySQLJwtSigningKeyRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        repo = mock(MySQLJwtSigningKeyRepository.class);
+        when(repo.findAllByOrderByCreatedAtDesc()).thenAnswer(invocation -> new ArrayList<>(rows));
+        when(repo.save(any(JwtSigningKey.class))).thenAnswer(invocation -> {
+            JwtSigningKey row = invocation.getArgument(0);
+            rows.removeIf(existing -> existing.getKid().equals(row.getKid()));
+            rows.add(0, row);
+            return row;
+        });
+    }
+
+    private JwtKeyService service(String secret) {
+        JwtKeyService service = new JwtKeyService(repo, "", secret);
+        ReflectionTestUtils.setField(service, "tokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(service, "rotationInterval", 604_800_000L);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void storesPrivateKeysEncrypted() {
+        JwtKeyService service = service("secret-a");
+        JwtSigningKey row = rows.get(0);
+
+        assertTrue(row.getPrivateKey().startsWith("v1:"));
+        byte[] stored = Base64.getDecoder().decode(row.getPrivateKey().substring(3));
+        byte[] pkcs8 = service.getSigningKey().privateKey().getEncoded();
+        assertTrue(new String(stored, StandardCharsets.ISO_8859_1)
+                .indexOf(new String(pkcs8, StandardCharsets.ISO_8859_1)) < 0);
+
+        JwtKeyService other = service("secret-a");
+        assertArrayEquals(pkcs8, other.getSigningKey().privateKey().getEncoded());
+    }
+
+    @Test
+    void wrongKeyEncryptionKeyCannotLoad() {
+        service("secret-a");
+        JwtKeyService other = new JwtKeyService(repo, "", "secret-b");
+        ReflectionTestUtils.setField(other, "tokenExpiration", 900_000L);
+        other.init(); // falls back to an ephemeral key rather than using the stored one
+        assertNotNull(other.getSigningKey());
+        assertNotEquals(rows.get(0).getKid(), other.getSigningKey().kid());
+    }
+
+    @Test
+    void sealsLegacyPlaintextRowsOnLoad() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+        JwtSigningKey legacy = new JwtSigningKey();
+        legacy.setKid("legacy-kid");
+        legacy.setAlgorithm("ES256");
+        legacy.setPrivateKey(Base64.getEncoder().encodeToString(pair.getPrivate().getEncoded()));
+        legacy.setPublicKey(Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()));
+        legacy.setCreatedAt(LocalDateTime.now());
+        rows.add(legacy);
+
+        JwtKeyService service = service("secret-a");
+
+        assertEquals("legacy-kid", service.getSigningKey().kid());
+        assertTrue(rows.get(0).getPrivateKey().startsWith("v1:"));
+        assertArrayEquals(pair.getPrivate().getEncoded(), service.getSigningKey().privateKey().getEncoded());
+    }
+
+    @Test
+    void rejectsMisSizedConfiguredKey() {
+        assertThrows(IllegalStateException.class, () -> new JwtKeyService(repo, "c2hvcnQ=", "secret"));
+    }
+}
@@ -0,0 +1,82 @@
+package springboot_login_page.login_page.Service;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "a-legacy-hs256-secret-that-is-at-least-256-bits-long";
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(mock(JwtKeyService.class));
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "expiration", 900_000L);
+    }
+
+    private static String legacyToken(Instant issuedAt) {
+        return Jwts.builder()
+                .setSubject("alice")
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(Instant.now().plusSeconds(600)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private void legacyUntil(Instant sunset) {
+        ReflectionTestUtils.setField(jwtService, "acceptLegacyHmac", true);
+        ReflectionTestUtils.setField(jwtService, "legacyHmacSunset", sunset.toString());
+    }
+
+    @Test
+    void refusesLegacyTokensByDefault() {
+        ReflectionTestUtils.setField(jwtService, "legacyHmacSunset", "");
+        jwtService.init();
+
+        String token = legacyToken(Instant.now().minusSeconds(60));
+        assertThrows(SignatureException.class, () -> jwtService.extractUsername(token));
+    }
+
+    @Test
+    void acceptsLegacyTokensIssuedBeforeTheSunsetOnly() {
+        Instant sunset = Instant.now().minusSeconds(30);
+        legacyUntil(sunset);
+        jwtService.init();
+
+        assertEquals("alice", jwtService.extractUsername(legacyToken(sunset.minusSeconds(60))));
+        String minted = legacyToken(sunset.plusSeconds(10));
+        assertThrows(SignatureException.class, () -> jwtService.extractUsername(minted));
+    }
+
+    @Test
+    void refusesEveryLegacyTokenOnceTheLastCouldHaveExpired() {
+        Instant sunset = Instant.now().minus(Duration.ofHours(1));
+        legacyUntil(sunset);
+        jwtService.init();
+
+        String token = legacyToken(sunset.minusSeconds(60));
+        assertThrows(SignatureException.class, () -> jwtService.extractUsername(token));
+    }
+
+    @Test
+    void legacyModeNeedsASunset() {
+        ReflectionTestUtils.setField(jwtService, "acceptLegacyHmac", true);
+        ReflectionTestUtils.setField(jwtService, "legacyHmacSunset", "");
+        assertThrows(IllegalStateException.class, jwtService::init);
+    }
+}
@@ -0,0 +1,60 @@
+package springboot_login_page.login_page.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SchedulerLockServiceTest {
+
+    private JdbcTemplate jdbc;
+    private SchedulerLockService locks;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        locks = new SchedulerLockService(jdbc, mock(PlatformTransactionManager.class));
+    }
+
+    private boolean tryLockOnOtherThread() {
+        return CompletableFuture.supplyAsync(() -> locks.tryLock("job", 60_000)).join();
+    }
+
+    @Test
+    void anotherJobOnThisNodeCannotShareTheLease() {
+        when(jdbc.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        assertTrue(locks.tryLock("job", 60_000));
+        assertFalse(tryLockOnOtherThread());
+        assertTrue(locks.tryLock("job", 60_000)); // renewal by the holder
+
+        locks.unlock("job");
+        assertTrue(tryLockOnOtherThread());
+    }
+
+    @Test
+    void leaseHeldElsewhereOrUnreachableDatabaseIsNotTaken() {
+        when(jdbc.update(anyString(), any(Object[].class))).thenReturn(0)
+                .thenThrow(new DuplicateKeyException("held"));
+        assertFalse(locks.tryLock("job", 60_000));
+
+        when(jdbc.update(anyString(), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        assertFalse(locks.tryLock("job", 60_000));
+
+        // A failed attempt leaves nothing behind on this node
+        when(jdbc.update(anyString(), any(Object[].class))).thenReturn(1);
+        assertTrue(tryLockOnOtherThread());
+    }
+}
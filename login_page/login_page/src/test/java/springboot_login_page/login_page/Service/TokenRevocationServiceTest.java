@@ -0,0 +1,52 @@
+package springboot_login_page.login_page.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import springboot_login_page.login_page.Repository.mysql.MySQLTokenRevocationRepository;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private TokenRevocationService revocations;
+
+    @BeforeEach
+    void setUp() {
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.getExpiration()).thenReturn(900_000L);
+        revocations = new TokenRevocationService(mock(MySQLTokenRevocationRepository.class), jwtService,
+                mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void unrevokedTokensPass() {
+        assertFalse(revocations.isRevoked("jti-1", "alice", System.currentTimeMillis()));
+    }
+
+    @Test
+    void revokedTokenIdIsRejected() {
+        revocations.revokeToken("jti-1", new Date(System.currentTimeMillis() + 60_000));
+        assertTrue(revocations.isRevoked("jti-1", "alice", System.currentTimeMillis()));
+        assertFalse(revocations.isRevoked("jti-2", "alice", System.currentTimeMillis()));
+    }
+
+    @Test
+    void userRevocationRejectsTokensIssuedUpToTheRevocation() throws InterruptedException {
+        long issuedBefore = System.currentTimeMillis();
+        Thread.sleep(2);
+        revocations.revokeUser("alice");
+
+        assertTrue(revocations.isRevoked("jti-1", "alice", issuedBefore));
+        assertTrue(revocations.isRevoked("jti-1", "alice", issuedBefore / 1000 * 1000)); // second-precision iat
+        assertFalse(revocations.isRevoked("jti-1", "bob", issuedBefore));
+
+        Thread.sleep(2);
+        assertFalse(revocations.isRevoked("jti-2", "alice", System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,104 @@
+package springboot_login_page.login_page.Service;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import springboot_login_page.login_page.DTO.USSDCodeDTO;
+import springboot_login_page.login_page.DTO.USSDImportReport;
+import springboot_login_page.login_page.Entity.USSDCode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class USSDCodeBulkServiceTest {
+
+    private ValidatorFactory validation;
+    private final List<USSDCodeDTO> inserted = new ArrayList<>();
+    private USSDCodeBulkService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        validation = Validation.buildDefaultValidatorFactory();
+        JdbcTemplate mysql = mock(JdbcTemplate.class);
+        when(mysql.queryForList(anyString(), eq(String.class), any(Object[].class))).thenReturn(List.of());
+        doAnswer(invocation -> {
+            inserted.addAll(invocation.getArgument(1));
+            return new int[0][];
+        }).when(mysql).batchUpdate(anyString(), any(List.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+        service = new USSDCodeBulkService(validation.getValidator(), mock(AuditService.class), mock(USSDCodeCatalog.class),
+                mysql, mock(JdbcTemplate.class), mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+                mock(PlatformTransactionManager.class), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "batchSize", 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validation.close();
+    }
+
+    private static USSDCode code(String value, String description, boolean active) {
+        USSDCode code = new USSDCode();
+        code.setCode(value);
+        code.setDescription(description);
+        code.setActive(active);
+        return code;
+    }
+
+    @Test
+    void csvExportImportsBackIncludingLineBreaksInDescriptions() throws Exception {
+        List<USSDCode> codes = List.of(
+                code("*123#", "Balance, airtime and \"bundles\"", true),
+                code("*124#", "Line one\nLine two\n\nLine four", false),
+                code("*125#", null, true));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportCodes(out, USSDCodeBulkService.Format.CSV, codes);
+
+        USSDImportReport report = service.importCodes(new ByteArrayInputStream(out.toByteArray()),
+                USSDCodeBulkService.Format.CSV);
+
+        assertEquals(3, report.getValidRows());
+        assertEquals(0, report.getInvalidRows());
+        assertEquals(3, inserted.size());
+        for (int i = 0; i < codes.size(); i++) {
+            assertEquals(codes.get(i).getCode(), inserted.get(i).getCode());
+            assertEquals(codes.get(i).getDescription(), inserted.get(i).getDescription());
+            assertEquals(codes.get(i).isActive(), inserted.get(i).isActive());
+        }
+    }
+
+    @Test
+    void unterminatedQuoteIsReportedAtTheLineItOpensOn() throws Exception {
+        String csv = "code,description,active\n"
+                + "*123#,\"never closed,true\n"
+                + "*124#,fine,true\n";
+
+        USSDImportReport report = service.importCodes(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), USSDCodeBulkService.Format.CSV);
+
+        // The open quote runs to the end of input, taking the following line with it
+        assertEquals(1, report.getInvalidRows());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertTrue(report.getErrors().get(0).getMessage().contains("Unterminated"));
+    }
+}
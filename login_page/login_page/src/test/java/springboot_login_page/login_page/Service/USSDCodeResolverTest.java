@@ -0,0 +1,105 @@
+package springboot_login_page.login_page.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import springboot_login_page.login_page.DTO.USSDCodeView;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class USSDCodeResolverTest {
+
+    private USSDCodeResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new USSDCodeResolver(mock(USSDCodeCatalog.class));
+        resolver.onReload(List.of(code(1, "*123#", true), code(2, "*123*456#", true), code(3, "*124#", true),
+                code(4, "*100#", false), code(5, "*1#", true)));
+    }
+
+    private static USSDCodeView code(long id, String value, boolean active) {
+        return new USSDCodeView(id, value, null, active);
+    }
+
+    @Test
+    void resolvesExactCodeWithOrWithoutHash() {
+        assertEquals("*123#", resolver.resolve("*123#").code());
+        assertEquals("*123#", resolver.resolve("*123").code());
+        assertEquals("*1#", resolver.resolve("*1#").code());
+    }
+
+    @Test
+    void prefersLongestMatchOnStarBoundary() {
+        assertEquals("*123*456#", resolver.resolve("*123*456*789#").code());
+        assertEquals("*123#", resolver.resolve("*123*45#").code());
+        assertEquals("*1#", resolver.resolve("*1*9#").code());
+    }
+
+    @Test
+    void returnsParamsAfterMatchedCode() {
+        USSDCodeResolver.Resolution resolution = resolver.resolveWithParams("*123*456*789*0#");
+        assertEquals("*123*456#", resolution.code().code());
+        assertEquals(List.of("789", "0"), resolution.params());
+        assertEquals(List.of(), resolver.resolveWithParams("*124#").params());
+    }
+
+    @Test
+    void missesUnknownPartialAndInactiveCodes() {
+        assertNull(resolver.resolve("*999#"));
+        assertNull(resolver.resolve("*12#"));     // not on a '*' boundary of *123
+        assertNull(resolver.resolve("*1234#"));   // *123 followed by a digit, not a parameter
+        assertNull(resolver.resolve("*100#"));    // inactive
+        assertNull(resolver.resolve("#"));
+        assertNull(resolver.resolve("*12a#"));
+    }
+
+    @Test
+    void upsertAndRemoveUpdateOnlyTheTouchedCodes() {
+        USSDCodeView renamed = code(1, "*125#", true);
+        resolver.onUpsert(code(1, "*123#", true), renamed);
+        assertNull(resolver.resolve("*123#"));
+        assertEquals("*123*456#", resolver.resolve("*123*456#").code());
+        assertEquals("*125#", resolver.resolve("*125*7#").code());
+
+        resolver.onRemove(code(2, "*123*456#", true));
+        assertNull(resolver.resolve("*123*456#"));
+        assertEquals("*124#", resolver.resolve("*124#").code());
+
+        resolver.onUpsert(null, code(4, "*100#", true));
+        assertEquals("*100#", resolver.resolve("*100#").code());
+    }
+
+    @Test
+    void insertSplitsAndRemoveRejoinsCompressedEdges() {
+        // *12 sits inside the *123 edge, so the edge has to split around it
+        resolver.onUpsert(null, code(6, "*12#", true));
+        assertEquals("*12#", resolver.resolve("*12*3#").code());
+        assertEquals("*123#", resolver.resolve("*123#").code());
+        assertEquals("*124#", resolver.resolve("*124#").code());
+
+        resolver.onRemove(code(6, "*12#", true));
+        assertNull(resolver.resolve("*12*3#"));
+        assertEquals("*123*456#", resolver.resolve("*123*456#").code());
+        assertEquals("*124#", resolver.resolve("*124#").code());
+    }
+
+    @Test
+    void updatesLeaveEarlierVersionsOfTheTrieIntact() {
+        Object before = ReflectionTestUtils.getField(resolver, "root");
+        resolver.onUpsert(code(1, "*123#", true), code(1, "*129#", true));
+        resolver.onRemove(code(3, "*124#", true));
+        resolver.onUpsert(null, code(7, "*123*4#", true));
+
+        // A reader still holding the old root sees exactly the old mappings
+        ReflectionTestUtils.setField(resolver, "root", before);
+        assertEquals("*123#", resolver.resolve("*123#").code());
+        assertEquals("*124#", resolver.resolve("*124#").code());
+        assertEquals("*123#", resolver.resolve("*123*4#").code());
+        assertNull(resolver.resolve("*129#"));
+    }
+}
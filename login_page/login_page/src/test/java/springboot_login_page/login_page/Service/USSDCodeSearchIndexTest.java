@@ -0,0 +1,83 @@
+package springboot_login_page.login_page.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import springboot_login_page.login_page.DTO.USSDCodeSearchResult;
+import springboot_login_page.login_page.DTO.USSDCodeView;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class USSDCodeSearchIndexTest {
+
+    private USSDCodeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new USSDCodeSearchIndex(mock(USSDCodeCatalog.class));
+        index.onReload(List.of(
+                code(1, "*123#", "Check airtime balance", true),
+                code(2, "*1234#", "Buy data bundle", true),
+                code(3, "*500#", "Mobile money menu", true),
+                code(4, "*501#", "Data balance", false)));
+    }
+
+    private static USSDCodeView code(long id, String value, String description, boolean active) {
+        return new USSDCodeView(id, value, description, active);
+    }
+
+    private List<Long> ids(String query) {
+        USSDCodeSearchResult result = index.search(query, 0, 10);
+        return result.getResults().stream().map(USSDCodeView::id).toList();
+    }
+
+    @Test
+    void ranksExactCodeBeforePrefixAndSubstring() {
+        assertEquals(List.of(1L), ids("*123#"));
+        assertEquals(List.of(1L, 2L), ids("*123"));
+        assertEquals(List.of(2L), ids("234"));
+    }
+
+    @Test
+    void ranksDescriptionWordPrefixBeforeMidWordMatch() {
+        assertEquals(List.of(1L, 4L), ids("balance"));
+        assertEquals(List.of(2L, 4L), ids("DATA"));   // case-insensitive; active code wins the tie
+        assertEquals(List.of(3L), ids("oney"));
+    }
+
+    @Test
+    void requiresEveryTerm() {
+        assertEquals(List.of(4L), ids("data balance"));
+        assertEquals(List.of(), ids("data money"));
+        assertEquals(List.of(1L), ids("airtime balance"));
+        assertEquals(List.of(1L, 4L), ids("e bal"));     // mid-word "e" in both; the active code ranks first
+    }
+
+    @Test
+    void shortTermsAreVerifiedAgainstEveryDocument() {
+        assertEquals(List.of(3L, 4L), ids("*5"));
+        assertEquals(List.of(), ids("zz"));
+        assertEquals(List.of(), ids("   "));
+    }
+
+    @Test
+    void followsUpsertsAndRemoves() {
+        index.onUpsert(code(3, "*500#", "Mobile money menu", true), code(3, "*600#", "Mobile wallet", true));
+        assertEquals(List.of(), ids("money"));
+        assertEquals(List.of(3L), ids("wallet"));
+        assertEquals(List.of(3L), ids("*600"));
+
+        index.onRemove(code(1, "*123#", "Check airtime balance", true));
+        assertEquals(List.of(2L), ids("*123"));
+        assertEquals(List.of(4L), ids("balance"));
+    }
+
+    @Test
+    void pagesThroughRankedHits() {
+        USSDCodeSearchResult page = index.search("*", 1, 3);
+        assertEquals(4, page.getTotal());
+        assertEquals(1, page.getResults().size());
+    }
+}
@@ -0,0 +1,128 @@
+package springboot_login_page.login_page.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import springboot_login_page.login_page.DTO.USSDCodeView;
+import springboot_login_page.login_page.DTO.USSDSessionRequest;
+import springboot_login_page.login_page.DTO.USSDSessionResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class USSDSessionServiceTest {
+
+    private static final long TICK_MS = 20;
+
+    private USSDCodeResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        USSDCodeView code = new USSDCodeView(7L, "*123#", null, true);
+        resolver = mock(USSDCodeResolver.class);
+        when(resolver.resolveWithParams(anyString())).thenReturn(new USSDCodeResolver.Resolution(code, List.of("1")));
+    }
+
+    private USSDSessionService service(long ttlMillis, int wheelSize) {
+        return new USSDSessionService(resolver, mock(USSDCodeUsageService.class), ttlMillis, TICK_MS, wheelSize, 100);
+    }
+
+    private static USSDSessionRequest request(String sessionId, String msisdn) {
+        USSDSessionRequest request = new USSDSessionRequest();
+        request.setSessionId(sessionId);
+        request.setMsisdn(msisdn);
+        request.setDialString("*123*1#");
+        return request;
+    }
+
+    // Runs the wheel as the scheduler would, once per tick, for the given time
+    private static void runWheel(USSDSessionService service, long millis) throws InterruptedException {
+        long until = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < until) {
+            service.tick();
+            Thread.sleep(TICK_MS / 2);
+        }
+        service.tick();
+    }
+
+    private static HttpStatus status(Runnable call) {
+        return HttpStatus.valueOf(assertThrows(ResponseStatusException.class, call::run).getStatusCode().value());
+    }
+
+    @Test
+    void keepsMsisdnAsDigitsWithLeadingZeros() {
+        USSDSessionResponse response = service(1000, 64).start(request("s1", "+0712345678"), "alice");
+        assertEquals("0712345678", response.getMsisdn());
+        assertEquals(7L, response.getCodeId());
+    }
+
+    @Test
+    void hidesSessionsFromOtherCallers() {
+        USSDSessionService service = service(1000, 64);
+        service.start(request("s1", "0712345678"), "alice");
+
+        assertEquals(HttpStatus.NOT_FOUND, status(() -> service.get("s1", "mallory")));
+        assertEquals(HttpStatus.NOT_FOUND, status(() -> service.advance("s1", null, "2", "mallory")));
+        assertEquals(HttpStatus.NOT_FOUND, status(() -> service.end("s1", "mallory")));
+        assertEquals(HttpStatus.CONFLICT, status(() -> service.advance("s1", "0799999999", "2", "alice")));
+
+        assertEquals("1*2", service.advance("s1", "+0712345678", "2", "alice").getPath());
+        assertEquals(1, service.get("s1", "alice").getStep());
+    }
+
+    @Test
+    void expiresIdleSessions() throws InterruptedException {
+        USSDSessionService service = service(100, 64);
+        service.start(request("s1", "0712345678"), "alice");
+        runWheel(service, 200);
+
+        assertEquals(HttpStatus.NOT_FOUND, status(() -> service.get("s1", "alice")));
+        assertEquals(1L, service.getMetrics().get("expired"));
+        assertEquals(0, service.getMetrics().get("active"));
+    }
+
+    @Test
+    void activityPostponesExpiry() throws InterruptedException {
+        USSDSessionService service = service(150, 64);
+        service.start(request("s1", "0712345678"), "alice");
+        for (int i = 0; i < 4; i++) {
+            runWheel(service, 80);
+            service.advance("s1", null, "x", "alice");
+        }
+        assertEquals(4, service.get("s1", "alice").getStep());
+
+        runWheel(service, 300);
+        assertEquals(HttpStatus.NOT_FOUND, status(() -> service.get("s1", "alice")));
+    }
+
+    @Test
+    void deadlinesBeyondOneRevolutionAreRefiled() throws InterruptedException {
+        // 10 ticks to live on a 4-slot wheel: the slot comes round twice before the deadline
+        USSDSessionService service = service(10 * TICK_MS, 4);
+        service.start(request("s1", "0712345678"), "alice");
+
+        runWheel(service, 5 * TICK_MS);
+        assertEquals(0, service.get("s1", "alice").getStep());
+
+        runWheel(service, 10 * TICK_MS);
+        assertEquals(HttpStatus.NOT_FOUND, status(() -> service.get("s1", "alice")));
+    }
+
+    @Test
+    void endedSessionsAreNotExpiredAgain() throws InterruptedException {
+        USSDSessionService service = service(60, 64);
+        service.start(request("s1", "0712345678"), "alice");
+        service.end("s1", "alice");
+        runWheel(service, 150);
+
+        assertEquals(0L, service.getMetrics().get("expired"));
+        assertEquals(1L, service.getMetrics().get("ended"));
+        assertEquals(0, service.getMetrics().get("active"));
+    }
+}
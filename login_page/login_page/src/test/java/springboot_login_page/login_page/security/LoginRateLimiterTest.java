@@ -0,0 +1,73 @@
+package springboot_login_page.login_page.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginRateLimiterTest {
+
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginRateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "usernameCapacity", 3);
+        ReflectionTestUtils.setField(limiter, "usernameRefillPerMinute", 1);
+        ReflectionTestUtils.setField(limiter, "ipCapacity", 100);
+        ReflectionTestUtils.setField(limiter, "ipRefillPerMinute", 100);
+        ReflectionTestUtils.setField(limiter, "maxBuckets", 100);
+        ReflectionTestUtils.setField(limiter, "overflowCapacity", 2);
+        ReflectionTestUtils.setField(limiter, "overflowRefillPerMinute", 1);
+    }
+
+    private static MockHttpServletRequest from(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(ip);
+        return request;
+    }
+
+    @Test
+    void throttlesUsernameOnceBucketIsEmpty() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("alice", from("10.0.0.1")));
+        }
+        assertFalse(limiter.tryAcquire("alice", from("10.0.0.2")));
+        assertTrue(limiter.tryAcquire("bob", from("10.0.0.1")));
+    }
+
+    @Test
+    void untrackedKeysShareAnOverflowBucketWhenFull() {
+        ReflectionTestUtils.setField(limiter, "maxBuckets", 2);
+        assertTrue(limiter.tryAcquire("alice", from("10.0.0.1"))); // ip and username buckets fill the table
+
+        assertTrue(limiter.tryAcquire("mallory", from("10.0.0.1")));
+        assertTrue(limiter.tryAcquire("trudy", from("10.0.0.1")));
+        assertFalse(limiter.tryAcquire("eve", from("10.0.0.1")));
+
+        // Keys that already have a bucket are unaffected by the overflow running dry
+        assertTrue(limiter.tryAcquire("alice", from("10.0.0.1")));
+    }
+
+    @Test
+    void tracksExistingKeysWhenFull() {
+        ReflectionTestUtils.setField(limiter, "maxBuckets", 2);
+        assertTrue(limiter.tryAcquire("alice", from("10.0.0.1")));
+        assertTrue(limiter.tryAcquire("alice", from("10.0.0.1")));
+        assertTrue(limiter.tryAcquire("alice", from("10.0.0.1")));
+        assertFalse(limiter.tryAcquire("alice", from("10.0.0.1")));
+    }
+
+    @Test
+    void evictionKeepsActiveBuckets() {
+        limiter.tryAcquire("alice", from("10.0.0.1"));
+        limiter.tryAcquire("alice", from("10.0.0.1"));
+        limiter.tryAcquire("alice", from("10.0.0.1"));
+        limiter.evictIdle();
+        assertFalse(limiter.tryAcquire("alice", from("10.0.0.1")));
+    }
+}
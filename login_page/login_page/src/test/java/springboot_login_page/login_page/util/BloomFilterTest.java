@@ -0,0 +1,61 @@
+package springboot_login_page.login_page.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsAnInsertedValueAsAbsent() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.put("u:user" + i);
+        for (int i = 0; i < 10_000; i++) assertTrue(filter.mightContain("u:user" + i));
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.put("t:" + i);
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent:" + i)) falsePositives++;
+        }
+        double rate = falsePositives / (double) probes;
+        assertTrue(rate < 0.02, "false-positive rate " + rate);
+    }
+
+    @Test
+    void roundTripsThroughStreams() throws IOException {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) filter.put("user" + i);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.writeTo(new DataOutputStream(bytes));
+        BloomFilter copy = BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        for (int i = 0; i < 1_000; i++) assertTrue(copy.mightContain("user" + i));
+        int agreed = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (copy.mightContain("other" + i) == filter.mightContain("other" + i)) agreed++;
+        }
+        assertEquals(10_000, agreed);
+    }
+
+    @Test
+    void rejectsCorruptHeader() {
+        byte[] garbage = {0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 9};
+        assertThrows(IOException.class,
+                () -> BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(garbage))));
+    }
+}
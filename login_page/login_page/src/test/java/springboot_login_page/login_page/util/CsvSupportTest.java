@@ -0,0 +1,47 @@
+package springboot_login_page.login_page.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvSupportTest {
+
+    private static CsvSupport.RecordReader reader(String text, int maxLength) {
+        return new CsvSupport.RecordReader(new BufferedReader(new StringReader(text)), maxLength);
+    }
+
+    @Test
+    void escapedFieldsParseBackToTheSameValues() throws IOException {
+        List<String> values = List.of("plain", "a, b", "say \"hi\"", "two\nlines", "");
+        StringBuilder line = new StringBuilder();
+        for (String value : values) {
+            if (line.length() > 0) line.append(',');
+            line.append(CsvSupport.escape(value));
+        }
+
+        CsvSupport.RecordReader records = reader(line + "\nnext,row\n", 1024);
+        assertEquals(values, CsvSupport.parseLine(records.next()));
+        assertEquals(1, records.line());
+        assertEquals(List.of("next", "row"), CsvSupport.parseLine(records.next()));
+        assertEquals(3, records.line());
+        assertNull(records.next());
+    }
+
+    @Test
+    void strayQuoteStopsAtTheLengthLimit() throws IOException {
+        CsvSupport.RecordReader records = reader("*1#,\"open\n*2#,b\n*3#,c\n*4#,d\n", 10);
+
+        String broken = records.next();
+        assertThrows(IllegalArgumentException.class, () -> CsvSupport.parseLine(broken));
+        // The record gave up after absorbing one more line; reading resumes right after it
+        assertEquals(List.of("*3#", "c"), CsvSupport.parseLine(records.next()));
+        assertEquals(3, records.line());
+    }
+}